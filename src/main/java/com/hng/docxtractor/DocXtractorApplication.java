@@ -2,14 +2,22 @@ package com.hng.docxtractor;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableAsync
+@EnableScheduling
 @SpringBootApplication
 public class DocXtractorApplication {
 
+    // startup steps kept for StartupTimingReport and the actuator startup endpoint
+    private static final int STARTUP_STEP_CAPACITY = 8192;
+
     public static void main(String[] args) {
-        SpringApplication.run(DocXtractorApplication.class, args);
+        SpringApplication app = new SpringApplication(DocXtractorApplication.class);
+        app.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        app.run(args);
     }
 
 }
@@ -0,0 +1,107 @@
+package com.hng.docxtractor.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hng.docxtractor.dto.DocumentDetailsDto;
+import com.hng.docxtractor.enums.DocumentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Serialized GET /documents/{id} bodies of COMPLETED documents, which don't change unless the
+ * document is re-analyzed. LRU, bounded by total body bytes. Entries carry a strong ETag (SHA-256
+ * of the body) so conditional requests can be answered without the DB.
+ * <p>
+ * Invalidated locally when analysis (re)starts or finishes; the TTL bounds how long another
+ * replica can serve a body from before a re-analysis on this one. A body read from the DB before
+ * an invalidation is not cached after it: callers take a {@link #stamp()} before loading and pass
+ * it to {@link #render}.
+ */
+@Component
+public class DocumentResponseCache {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${cache.documents.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${cache.documents.ttl:PT10M}")
+    private Duration ttl;
+
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    // bumped by every invalidation
+    private long invalidations;
+
+    public record Entry(byte[] body, String etag, long createdNanos) {
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+            for (String tag : ifNoneMatch.split(",")) {
+                String t = tag.trim();
+                if (t.equals("*")) return true;
+                if (t.startsWith("W/")) t = t.substring(2);
+                if (t.equals(etag)) return true;
+            }
+            return false;
+        }
+    }
+
+    public synchronized Optional<Entry> get(UUID id) {
+        Entry e = entries.get(id);
+        if (e == null) return Optional.empty();
+        if (System.nanoTime() - e.createdNanos() > ttl.toNanos()) {
+            remove(id);
+            return Optional.empty();
+        }
+        return Optional.of(e);
+    }
+
+    /**
+     * Take before loading the document that is passed to {@link #render}.
+     */
+    public synchronized long stamp() {
+        return invalidations;
+    }
+
+    /**
+     * Serialize {@code dto}; the result is cached only if the document is COMPLETED and nothing was
+     * invalidated since {@code stamp} (the DTO may predate a re-analysis that started meanwhile).
+     */
+    public Entry render(DocumentDetailsDto dto, long stamp) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(dto);
+        Entry entry = new Entry(body, etagOf(body), System.nanoTime());
+        // one huge document shouldn't flush the whole cache
+        if (dto.getStatus() == DocumentStatus.COMPLETED && body.length <= maxBytes / 8) {
+            synchronized (this) {
+                if (invalidations != stamp) return entry;
+                remove(dto.getId());
+                entries.put(dto.getId(), entry);
+                totalBytes += body.length;
+                Iterator<Map.Entry<UUID, Entry>> eldest = entries.entrySet().iterator();
+                while (totalBytes > maxBytes && eldest.hasNext()) {
+                    totalBytes -= eldest.next().getValue().body().length;
+                    eldest.remove();
+                }
+            }
+        }
+        return entry;
+    }
+
+    public synchronized void invalidate(UUID id) {
+        invalidations++;
+        remove(id);
+    }
+
+    private void remove(UUID id) {
+        Entry old = entries.remove(id);
+        if (old != null) totalBytes -= old.body().length;
+    }
+
+    private static String etagOf(byte[] body) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+    }
+}
@@ -0,0 +1,42 @@
+package com.hng.docxtractor.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Bounded executors for background work that must not share Spring's default task executor.
+ * A full queue rejects the task (TaskRejectedException) instead of growing without limit. They are not
+ * default candidates, so Boot still auto-configures applicationTaskExecutor for plain {@code @Async}
+ * and MVC async requests.
+ */
+@Configuration
+public class AsyncConfig {
+
+    public static final String EXTRACTION_EXECUTOR = "extractionExecutor";
+    public static final String EXPORT_EXECUTOR = "exportExecutor";
+
+    // direct-upload extractions: each thread downloads the object, then waits on the ExtractionScheduler
+    @Bean(name = EXTRACTION_EXECUTOR, defaultCandidate = false)
+    public ThreadPoolTaskExecutor extractionExecutor(@Value("${extraction.async.pool-size:8}") int poolSize,
+                                                     @Value("${extraction.async.queue-capacity:500}") int queueCapacity) {
+        return bounded("extraction-async-", poolSize, queueCapacity);
+    }
+
+    // /documents/export streams for up to export.timeout, so a few exports must not starve other async requests
+    @Bean(name = EXPORT_EXECUTOR, defaultCandidate = false)
+    public ThreadPoolTaskExecutor exportExecutor(@Value("${export.pool-size:4}") int poolSize,
+                                                 @Value("${export.queue-capacity:0}") int queueCapacity) {
+        return bounded("export-", poolSize, queueCapacity);
+    }
+
+    private static ThreadPoolTaskExecutor bounded(String prefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+}
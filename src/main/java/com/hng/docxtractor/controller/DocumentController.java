@@ -1,17 +1,34 @@
 package com.hng.docxtractor.controller;
 
+import com.hng.docxtractor.cache.DocumentResponseCache;
+import com.hng.docxtractor.config.AsyncConfig;
 import com.hng.docxtractor.dto.*;
 import com.hng.docxtractor.entity.Document;
 import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.enums.ExportFormat;
+import com.hng.docxtractor.exception.ApiException;
+import com.hng.docxtractor.exception.ServiceBusyException;
+import com.hng.docxtractor.ocr.OcrTier;
 import com.hng.docxtractor.repo.DocumentRepository;
+import com.hng.docxtractor.search.SearchIndexService;
+import com.hng.docxtractor.service.AnalysisLeaseService;
+import com.hng.docxtractor.service.DocumentExportService;
 import com.hng.docxtractor.service.DocumentService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.*;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
 
@@ -23,31 +40,84 @@ public class DocumentController {
 
     private final DocumentService documentService;
     private final DocumentRepository repo;
+    private final SearchIndexService searchIndexService;
+    private final AnalysisLeaseService analysisLeaseService;
+    private final DocumentResponseCache responseCache;
+    private final DocumentExportService exportService;
+    @Qualifier(AsyncConfig.EXPORT_EXECUTOR)
+    private final AsyncTaskExecutor exportExecutor;
+
+    @Value("${export.timeout:PT1H}")
+    private Duration exportTimeout;
 
     /**
      * Upload endpoint: POST /upload
-     * Accepts multipart/form-data "file"
+     * Accepts multipart/form-data "file"; optional "ocrTier" (fast | balanced | best) for scanned content.
+     * Optional X-Client-Id header: extraction capacity is shared fairly between clients.
+     * Optional "callbackUrl": webhook notified when analysis completes or fails.
      */
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<DocumentUploadResponse> upload(@RequestPart("file") MultipartFile file) {
-        DocumentUploadResponse res = documentService.uploadDocument(file);
+    public ResponseEntity<DocumentUploadResponse> upload(@RequestPart("file") MultipartFile file,
+                                                         @RequestParam(value = "ocrTier", required = false) String ocrTier,
+                                                         @RequestParam(value = "callbackUrl", required = false) String callbackUrl,
+                                                         @RequestHeader(value = "X-Client-Id", required = false) String clientId) {
+        DocumentUploadResponse res = documentService.uploadDocument(file, OcrTier.parse(ocrTier), clientId, callbackUrl);
         return ResponseEntity.ok(res);
     }
 
     /**
-     * Analyze: POST /documents/{id}/analyze
+     * Direct upload, step 1: POST /documents/uploads {fileName, contentType, sizeBytes?, ocrTier?}
+     * Returns a presigned PUT URL; the file goes straight to object storage, not through this API.
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<DirectUploadResponse> createUpload(@RequestBody DirectUploadRequest request,
+                                                             @RequestHeader(value = "X-Client-Id", required = false) String clientId) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(documentService.createDirectUpload(request, clientId));
+    }
+
+    /**
+     * Direct upload, step 2: POST /documents/{id}/complete-upload once the PUT succeeded.
+     * Extraction then streams the object back from storage in the background.
+     */
+    @PostMapping("/{id}/complete-upload")
+    public ResponseEntity<?> completeUpload(@PathVariable UUID id) {
+        Document claimed = documentService.completeDirectUpload(id).orElse(null);
+        if (claimed == null) {
+            Document doc = repo.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+            return ResponseEntity.ok(Map.of(
+                    "status", doc.getStatus().name(),
+                    "message", "Upload was already completed."
+            ));
+        }
+
+        try {
+            documentService.runExtractionAsync(claimed);
+        } catch (TaskRejectedException e) {
+            documentService.abortExtraction(claimed);
+            throw new ServiceBusyException("Too many extractions are queued. Please retry complete-upload shortly.");
+        }
+
+        return ResponseEntity.accepted().body(Map.of(
+                "status", DocumentStatus.EXTRACTING.name(),
+                "message", "Upload received; text extraction has started. Call /documents/" + id + "/analyze once it is PENDING."
+        ));
+    }
+
+    /**
+     * Analyze: POST /documents/{id}/analyze?summary=true
+     * With summary=false a confidently classified document skips the LLM (type + local entities only).
      */
     @PostMapping("/{id}/analyze")
-    public ResponseEntity<?> analyze(@PathVariable UUID id) {
+    public ResponseEntity<?> analyze(@PathVariable UUID id,
+                                     @RequestParam(value = "summary", defaultValue = "true") boolean summary) {
 
         Document doc = repo.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
-        if (doc.getStatus() == DocumentStatus.PROCESSING) {
-            return ResponseEntity.ok(Map.of(
-                    "status", "PROCESSING",
-                    "message", "Your document is still being analyzed. Please be patient."
-            ));
+        // classified locally earlier, summary wanted now: run the full analysis
+        if (doc.getStatus() == DocumentStatus.COMPLETED && summary && documentService.reopenForSummary(id)) {
+            doc = repo.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
         }
 
         if (doc.getStatus() == DocumentStatus.COMPLETED) {
@@ -71,21 +141,113 @@ public class DocumentController {
             ));
         }
 
-        // PENDING or FAILED → Start analysis
-        documentService.runAnalysisAsync(doc);
+        if (doc.getStatus() == DocumentStatus.AWAITING_UPLOAD || doc.getStatus() == DocumentStatus.EXTRACTING) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "status", doc.getStatus().name(),
+                    "message", "Text extraction has not finished yet. Please retry shortly."
+            ));
+        }
+
+        if (doc.getStatus() == DocumentStatus.EXTRACTION_FAILED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "status", doc.getStatus().name(),
+                    "message", "No text could be extracted from this document, so it cannot be analyzed."
+            ));
+        }
+
+        // PENDING, FAILED or PROCESSING with an expired lease → try to claim it.
+        // The claim is a conditional UPDATE, so concurrent callers and other replicas can't both win.
+        Document claimed = analysisLeaseService.claim(id).orElse(null);
+        if (claimed == null) {
+            return ResponseEntity.ok(Map.of(
+                    "status", "PROCESSING",
+                    "message", "Your document is still being analyzed. Please be patient."
+            ));
+        }
+
+        documentService.runAnalysisAsync(claimed, summary);
 
         return ResponseEntity.accepted().body(Map.of(
                 "status", "STARTED",
-                "message", "Your document analysis has started. You will be notified when complete."
+                "message", "Your document analysis has started. You will be notified when complete if you registered a callbackUrl or webhook."
         ));
     }
 
     /**
-     * Get combined document
+     * List: GET /documents?status=FAILED&since=2024-01-01T00:00:00Z&order=desc&limit=50&cursor=...
+     * Keyset-paginated on (createdAt, id); pass the returned nextCursor to fetch the next page.
+     */
+    @GetMapping
+    public ResponseEntity<DocumentPageResponse> list(
+            @RequestParam(value = "status", required = false) DocumentStatus status,
+            @RequestParam(value = "since", required = false) Instant since,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "order", defaultValue = "desc") String order,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        boolean ascending;
+        if ("asc".equalsIgnoreCase(order)) ascending = true;
+        else if ("desc".equalsIgnoreCase(order)) ascending = false;
+        else throw new ApiException("Invalid order '" + order + "'. Use asc or desc.");
+        return ResponseEntity.ok(documentService.listDocuments(status, since, cursor, ascending, limit));
+    }
+
+    /**
+     * Search: GET /documents/search?q=...&documentType=invoice&status=COMPLETED&page=0&size=20
+     */
+    @GetMapping("/search")
+    public ResponseEntity<DocumentSearchResponse> search(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "documentType", required = false) String documentType,
+            @RequestParam(value = "status", required = false) DocumentStatus status,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchIndexService.search(q, documentType, status, page, size));
+    }
+
+    /**
+     * Export: GET /documents/export?format=ndjson|csv&status=COMPLETED&documentType=invoice&from=...&to=...&includeText=false
+     * Streams every matching document (createdAt in [from, to)) straight from a database cursor.
+     * Runs as an async task on the bounded export executor with its own {@code export.timeout}, so long
+     * exports never occupy the threads other async requests use; 503 when {@code export.pool-size} are running.
+     */
+    @GetMapping("/export")
+    public WebAsyncTask<Void> export(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "status", required = false) DocumentStatus status,
+            @RequestParam(value = "documentType", required = false) String documentType,
+            @RequestParam(value = "from", required = false) Instant from,
+            @RequestParam(value = "to", required = false) Instant to,
+            @RequestParam(value = "includeText", defaultValue = "false") boolean includeText,
+            HttpServletResponse response) {
+        ExportFormat fmt = ExportFormat.parse(format);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("documents-export." + fmt.extension).build().toString());
+        response.setContentType(fmt.mediaType + ";charset=UTF-8");
+        return new WebAsyncTask<>(exportTimeout.toMillis(), exportExecutor, () -> {
+            exportService.export(status, documentType, from, to, fmt, includeText, response.getOutputStream());
+            return null;
+        });
+    }
+
+    /**
+     * Get combined document. Completed documents are served from memory; send the returned ETag
+     * back as If-None-Match to get 304 Not Modified.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<DocumentDetailsDto> get(@PathVariable("id") UUID id) {
-        DocumentDetailsDto dto = documentService.getDocument(id);
-        return ResponseEntity.ok(dto);
+    public ResponseEntity<byte[]> get(@PathVariable("id") UUID id,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws Exception {
+        DocumentResponseCache.Entry entry = responseCache.get(id).orElse(null);
+        if (entry == null) {
+            long stamp = responseCache.stamp();
+            entry = responseCache.render(documentService.getDocument(id), stamp);
+        }
+        if (entry.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entry.etag()).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(entry.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(entry.body());
     }
 }
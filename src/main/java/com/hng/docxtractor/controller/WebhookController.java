@@ -0,0 +1,48 @@
+package com.hng.docxtractor.controller;
+
+import com.hng.docxtractor.dto.WebhookRegistrationRequest;
+import com.hng.docxtractor.dto.WebhookSubscriptionDto;
+import com.hng.docxtractor.service.WebhookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-client completion webhooks, keyed by the X-Client-Id header used on upload. Managing them
+ * also takes the client's X-Client-Key, since anyone can send an X-Client-Id.
+ */
+@RestController
+@RequestMapping("/webhooks")
+@RequiredArgsConstructor
+public class WebhookController {
+
+    private final WebhookService webhookService;
+
+    /**
+     * Register: POST /webhooks {"url": "..."}; the response carries the signing secret (shown once)
+     */
+    @PostMapping
+    public ResponseEntity<WebhookSubscriptionDto> register(@RequestHeader(value = "X-Client-Id", required = false) String clientId,
+                                                           @RequestHeader(value = "X-Client-Key", required = false) String clientKey,
+                                                           @RequestBody WebhookRegistrationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(webhookService.register(clientId, clientKey, request.getUrl()));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<WebhookSubscriptionDto>> list(@RequestHeader(value = "X-Client-Id", required = false) String clientId,
+                                                             @RequestHeader(value = "X-Client-Key", required = false) String clientKey) {
+        return ResponseEntity.ok(webhookService.list(clientId, clientKey));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@RequestHeader(value = "X-Client-Id", required = false) String clientId,
+                                       @RequestHeader(value = "X-Client-Key", required = false) String clientKey,
+                                       @PathVariable UUID id) {
+        webhookService.delete(clientId, clientKey, id);
+        return ResponseEntity.noContent().build();
+    }
+}
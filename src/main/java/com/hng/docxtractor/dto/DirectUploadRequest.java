@@ -0,0 +1,20 @@
+package com.hng.docxtractor.dto;
+import lombok.*;
+
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class DirectUploadRequest {
+    private String fileName;
+    private String contentType;
+    /**
+     * Expected size; optional, checked against the stored object on completion when given.
+     */
+    private Long sizeBytes;
+    /**
+     * fast | balanced | best; optional
+     */
+    private String ocrTier;
+    /**
+     * Webhook notified when analysis completes or fails; optional
+     */
+    private String callbackUrl;
+}
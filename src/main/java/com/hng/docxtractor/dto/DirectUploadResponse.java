@@ -0,0 +1,24 @@
+package com.hng.docxtractor.dto;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data @Builder
+public class DirectUploadResponse {
+    private UUID id;
+    /**
+     * Presigned URL to PUT the file's bytes to (send the same Content-Type as requested).
+     */
+    private String uploadUrl;
+    private String method;
+    private Instant expiresAt;
+    /**
+     * Call this (POST) once the PUT has succeeded to start extraction.
+     */
+    private String completeUrl;
+    /**
+     * Only when a callbackUrl was given: the key its callbacks are signed with. Shown only here.
+     */
+    private String callbackSecret;
+}
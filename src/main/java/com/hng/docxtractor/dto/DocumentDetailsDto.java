@@ -1,4 +1,5 @@
 package com.hng.docxtractor.dto;
+import com.hng.docxtractor.enums.DocumentStatus;
 import lombok.*;
 
 import java.util.UUID;
@@ -14,6 +15,7 @@ public class DocumentDetailsDto {
     private boolean containsImages;
     private int imageCount;
     private boolean analyzed;
+    private DocumentStatus status;
     private String documentType;
     private String summary;
     private String metadataJson;
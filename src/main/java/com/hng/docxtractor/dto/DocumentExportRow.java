@@ -0,0 +1,26 @@
+package com.hng.docxtractor.dto;
+import com.hng.docxtractor.enums.DocumentStatus;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Export row, read through a JPQL constructor expression so rows are never managed entities.
+ * extractedText is only selected when the export asks for it.
+ */
+@Data @AllArgsConstructor @NoArgsConstructor
+public class DocumentExportRow {
+    private UUID id;
+    private String fileName;
+    private String contentType;
+    private Long sizeBytes;
+    private DocumentStatus status;
+    private String documentType;
+    private String documentTypeSource;
+    private boolean analyzed;
+    private Instant createdAt;
+    private String summary;
+    private String metadataJson;
+    private String extractedText;
+}
@@ -0,0 +1,13 @@
+package com.hng.docxtractor.dto;
+import lombok.*;
+
+import java.util.List;
+
+@Data @Builder
+public class DocumentPageResponse {
+    private List<DocumentSummaryDto> items;
+    /**
+     * Opaque cursor for the next page; null when this is the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,27 @@
+package com.hng.docxtractor.dto;
+import com.hng.docxtractor.enums.DocumentStatus;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data @Builder
+public class DocumentSearchResponse {
+    private long totalHits;
+    private int page;
+    private int size;
+    private long tookMs;
+    private List<Hit> hits;
+
+    @Data @Builder
+    public static class Hit {
+        private UUID id;
+        private String fileName;
+        private String documentType;
+        private DocumentStatus status;
+        private String summary;
+        private Instant createdAt;
+        private float score;
+    }
+}
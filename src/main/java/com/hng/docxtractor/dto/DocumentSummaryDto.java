@@ -0,0 +1,21 @@
+package com.hng.docxtractor.dto;
+import com.hng.docxtractor.enums.DocumentStatus;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Listing row: only scalar columns, never the LOB text/summary/metadata.
+ */
+@Data @Builder @AllArgsConstructor @NoArgsConstructor
+public class DocumentSummaryDto {
+    private UUID id;
+    private String fileName;
+    private String contentType;
+    private Long sizeBytes;
+    private DocumentStatus status;
+    private String documentType;
+    private boolean analyzed;
+    private Instant createdAt;
+}
@@ -12,4 +12,8 @@ public class DocumentUploadResponse {
     private boolean containsImages;
     private int imageCount;
     private String message;
+    /**
+     * Only when a callbackUrl was given: the key its callbacks are signed with. Shown only here.
+     */
+    private String callbackSecret;
 }
@@ -0,0 +1,7 @@
+package com.hng.docxtractor.dto;
+import lombok.*;
+
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class WebhookRegistrationRequest {
+    private String url;
+}
@@ -0,0 +1,17 @@
+package com.hng.docxtractor.dto;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data @Builder
+public class WebhookSubscriptionDto {
+    private UUID id;
+    private String clientId;
+    private String url;
+    /**
+     * HMAC-SHA256 signing key; only present in the registration response.
+     */
+    private String secret;
+    private Instant createdAt;
+}
@@ -4,14 +4,27 @@ import com.hng.docxtractor.enums.DocumentStatus;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        // keyset listing: WHERE status = ? ORDER BY created_at, id
+        @Index(name = "idx_documents_status_created", columnList = "status, created_at, id"),
+        // keyset listing without a status filter
+        @Index(name = "idx_documents_created", columnList = "created_at, id"),
+        // lease reaper: WHERE status = 'PROCESSING' AND lease_expires_at < now
+        @Index(name = "idx_documents_status_lease", columnList = "status, lease_expires_at"),
+        // search index change feed: WHERE updated_at > ? ORDER BY updated_at, id
+        @Index(name = "idx_documents_updated", columnList = "updated_at, id")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
-public class Document {
+public class Document implements Persistable<UUID> {
     @Id
     private UUID id;
 
@@ -20,7 +33,7 @@ public class Document {
     private String contentType;
     private Long sizeBytes;
 
-    @Lob
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
     private String extractedText;
 
     private boolean containsImages;
@@ -31,22 +44,85 @@ public class Document {
 
     private String documentType; // invoice, cv, report, etc.
 
-    @Lob
+    /**
+     * Who decided documentType: "llm" or "classifier" (local model, see DocumentClassifier).
+     */
+    @Column(name = "document_type_source", length = 16)
+    private String documentTypeSource;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
     private String summary;
 
     /**
      * JSON string containing extracted structured metadata (names, dates, amounts, emails, phones)
      */
-    @Lob
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
     private String metadataJson;
 
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @Column(name = "status", nullable = false)
     private DocumentStatus status = DocumentStatus.PENDING; // <= default value
 
     @Column(nullable = false)
     private boolean viewed = false;
 
+    /**
+     * X-Client-Id of the uploader (extraction fairness).
+     */
+    @Column(name = "client_id", length = 128)
+    private String clientId;
+
+    /**
+     * OCR tier requested for a direct upload, applied when its extraction runs later.
+     */
+    @Column(name = "ocr_tier", length = 16)
+    private String ocrTier;
+
+    /**
+     * Per-upload webhook notified when analysis completes or fails.
+     */
+    @Column(name = "callback_url", length = 2048)
+    private String callbackUrl;
+
+    /**
+     * Analysis lease: who is currently running the LLM analysis and until when.
+     * Claimed/released with conditional UPDATEs in DocumentRepository, never by read-modify-write.
+     */
+    @Column(name = "lease_owner", length = 128)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
     @CreationTimestamp
+    @Column(name = "created_at")
     private Instant createdAt;
+
+    /**
+     * Last write; the search index on each replica catches up from this. Bulk UPDATEs in
+     * DocumentRepository set it explicitly, since they bypass @UpdateTimestamp.
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    /**
+     * IDs are assigned before saving, so Spring Data can't tell new rows from existing ones by the id.
+     * Tracking it here lets save() persist (batched INSERT) instead of merge (SELECT + INSERT).
+     */
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
 }
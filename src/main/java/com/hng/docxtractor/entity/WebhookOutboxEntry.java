@@ -0,0 +1,72 @@
+package com.hng.docxtractor.entity;
+
+import com.hng.docxtractor.enums.WebhookDeliveryStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One pending callback. Written in the same transaction that records the analysis outcome, then
+ * picked up by the delivery worker with the same lease pattern as document analysis.
+ */
+@Entity
+@Table(name = "webhook_outbox", indexes = {
+        // delivery worker: WHERE status = 'PENDING' AND next_attempt_at <= now
+        @Index(name = "idx_webhook_outbox_due", columnList = "status, next_attempt_at")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class WebhookOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "document_id", nullable = false)
+    private UUID documentId;
+
+    /**
+     * Null for a per-upload callbackUrl (signed with the document's callback key).
+     */
+    @Column(name = "subscription_id")
+    private UUID subscriptionId;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    @Column(nullable = false, length = 64)
+    private String event;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private WebhookDeliveryStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "lease_owner", length = 128)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "delivered_at")
+    private Instant deliveredAt;
+}
@@ -0,0 +1,33 @@
+package com.hng.docxtractor.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Per-client webhook: every document uploaded with this X-Client-Id is reported to {@code url}.
+ * Its signing key isn't stored; it is derived from webhook.signing-secret and the id when needed.
+ */
+@Entity
+@Table(name = "webhook_subscriptions", indexes = {
+        @Index(name = "idx_webhook_subscriptions_client", columnList = "client_id")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class WebhookSubscription {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "client_id", nullable = false, length = 128)
+    private String clientId;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
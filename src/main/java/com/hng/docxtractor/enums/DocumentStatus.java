@@ -1,8 +1,11 @@
 package com.hng.docxtractor.enums;
 
 public enum DocumentStatus {
+    AWAITING_UPLOAD, // presigned upload issued, object not confirmed yet
+    EXTRACTING,      // object confirmed, text being pulled from storage and extracted
     PENDING,
     PROCESSING,
     COMPLETED,
-    FAILED
+    FAILED,           // analysis failed; /analyze retries it
+    EXTRACTION_FAILED // no usable text (oversize, unreadable, extraction stalled, upload never completed); not analyzable
 }
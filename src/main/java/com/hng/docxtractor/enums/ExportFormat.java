@@ -0,0 +1,30 @@
+package com.hng.docxtractor.enums;
+
+import com.hng.docxtractor.exception.ApiException;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    public final String mediaType;
+    public final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Case-insensitive lookup; null/blank gives NDJSON.
+     */
+    public static ExportFormat parse(String value) {
+        if (value == null || value.isBlank()) return NDJSON;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Unknown export format '" + value + "'. Use ndjson or csv.");
+        }
+    }
+}
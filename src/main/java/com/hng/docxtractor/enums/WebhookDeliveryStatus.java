@@ -0,0 +1,7 @@
+package com.hng.docxtractor.enums;
+
+public enum WebhookDeliveryStatus {
+    PENDING,
+    DELIVERED,
+    DEAD // gave up after webhook.max-attempts
+}
@@ -1,11 +1,32 @@
 package com.hng.docxtractor.exception;
 
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 @ControllerAdvice
 public class RestExceptionHandler {
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Object> handleBusy(ServiceBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(ex.getMessage());
+    }
+
+    // a bounded executor (e.g. exportExecutor) is full
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Object> handleRejected(TaskRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body("Server is busy. Please retry shortly.");
+    }
+
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<Object> handleUnauthorized(UnauthorizedException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ex.getMessage());
+    }
+
     @ExceptionHandler(ApiException.class)
     public ResponseEntity<Object> handleApi(ApiException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
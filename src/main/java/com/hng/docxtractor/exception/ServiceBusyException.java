@@ -0,0 +1,8 @@
+package com.hng.docxtractor.exception;
+
+/**
+ * Temporary overload (e.g. extraction capacity exhausted); mapped to 503 so clients retry.
+ */
+public class ServiceBusyException extends ApiException {
+    public ServiceBusyException(String message){ super(message); }
+}
@@ -0,0 +1,8 @@
+package com.hng.docxtractor.exception;
+
+/**
+ * Missing or wrong client credentials; mapped to 401.
+ */
+public class UnauthorizedException extends ApiException {
+    public UnauthorizedException(String message){ super(message); }
+}
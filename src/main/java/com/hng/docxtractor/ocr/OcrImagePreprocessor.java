@@ -0,0 +1,215 @@
+package com.hng.docxtractor.ocr;
+
+import org.springframework.stereotype.Component;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+/**
+ * Cleans an image up before it reaches Tesseract: grayscale, downscale to the tier's DPI,
+ * deskew, binarize (Otsu) and crop blank margins. Smaller, cleaner 1-byte images OCR
+ * noticeably faster than raw RGB renders.
+ */
+@Component
+public class OcrImagePreprocessor {
+
+    // when the source DPI is unknown (plain image uploads), cap the long edge at a legal-size page
+    private static final double MAX_PAGE_INCHES = 14.0;
+    private static final int DESKEW_SAMPLE_WIDTH = 600;
+    private static final double DESKEW_MAX_ANGLE = 5.0;
+    private static final int MARGIN_PADDING = 10;
+
+    /**
+     * @param sourceDpi resolution the image was rendered/scanned at, or 0 if unknown
+     */
+    public BufferedImage prepare(BufferedImage src, OcrTier tier, int sourceDpi) {
+        BufferedImage gray = toGray(scale(src, tier, sourceDpi));
+        if (tier.deskew) {
+            double angle = estimateSkew(gray, tier == OcrTier.BEST ? 0.25 : 0.5);
+            if (Math.abs(angle) >= 0.25) gray = rotate(gray, -angle);
+        }
+        binarize(gray, otsuThreshold(gray));
+        return cropMargins(gray);
+    }
+
+    private BufferedImage scale(BufferedImage src, OcrTier tier, int sourceDpi) {
+        double factor;
+        if (sourceDpi > 0) {
+            factor = (double) tier.dpi / sourceDpi;
+        } else {
+            double maxEdge = tier.dpi * MAX_PAGE_INCHES;
+            factor = maxEdge / Math.max(src.getWidth(), src.getHeight());
+        }
+        if (factor >= 1.0) return src; // never upscale
+        int w = Math.max(1, (int) Math.round(src.getWidth() * factor));
+        int h = Math.max(1, (int) Math.round(src.getHeight() * factor));
+        BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(src, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private BufferedImage toGray(BufferedImage src) {
+        // reuse only a plain, unshared gray raster (pixels() relies on stride == width)
+        if (src.getType() == BufferedImage.TYPE_BYTE_GRAY
+                && src.getRaster().getDataBuffer().getSize() == src.getWidth() * src.getHeight()) return src;
+        BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setColor(Color.WHITE); // transparent areas become paper, not ink
+            g.fillRect(0, 0, out.getWidth(), out.getHeight());
+            g.drawImage(src, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static byte[] pixels(BufferedImage gray) {
+        return ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+    }
+
+    int otsuThreshold(BufferedImage gray) {
+        byte[] px = pixels(gray);
+        long[] hist = new long[256];
+        for (byte b : px) hist[b & 0xff]++;
+
+        long total = px.length;
+        double sumAll = 0;
+        for (int i = 0; i < 256; i++) sumAll += (double) i * hist[i];
+
+        double sumBg = 0, bestVar = -1;
+        long wBg = 0;
+        int best = 127;
+        for (int t = 0; t < 256; t++) {
+            wBg += hist[t];
+            if (wBg == 0) continue;
+            long wFg = total - wBg;
+            if (wFg == 0) break;
+            sumBg += (double) t * hist[t];
+            double meanBg = sumBg / wBg;
+            double meanFg = (sumAll - sumBg) / wFg;
+            double between = (double) wBg * wFg * (meanBg - meanFg) * (meanBg - meanFg);
+            if (between > bestVar) {
+                bestVar = between;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    private void binarize(BufferedImage gray, int threshold) {
+        byte[] px = pixels(gray);
+        for (int i = 0; i < px.length; i++) {
+            px[i] = (px[i] & 0xff) <= threshold ? 0 : (byte) 255;
+        }
+    }
+
+    /**
+     * Projection-profile skew estimate: text rows give the sharpest horizontal ink histogram
+     * when the page is level. Runs on a downsampled copy so it stays cheap.
+     */
+    double estimateSkew(BufferedImage gray, double step) {
+        int w = gray.getWidth(), h = gray.getHeight();
+        int sampleStep = Math.max(1, w / DESKEW_SAMPLE_WIDTH);
+        int threshold = otsuThreshold(gray);
+        byte[] px = pixels(gray);
+
+        // collect ink pixel coordinates once
+        int[] xs = new int[1024], ys = new int[1024];
+        int n = 0;
+        for (int y = 0; y < h; y += sampleStep) {
+            int row = y * w;
+            for (int x = 0; x < w; x += sampleStep) {
+                if ((px[row + x] & 0xff) <= threshold) {
+                    if (n == xs.length) {
+                        xs = java.util.Arrays.copyOf(xs, n * 2);
+                        ys = java.util.Arrays.copyOf(ys, n * 2);
+                    }
+                    xs[n] = x / sampleStep;
+                    ys[n] = y / sampleStep;
+                    n++;
+                }
+            }
+        }
+        if (n < 100) return 0;
+
+        int sw = w / sampleStep + 1, sh = h / sampleStep + 1;
+        int pad = (int) Math.ceil(sw * Math.tan(Math.toRadians(DESKEW_MAX_ANGLE))) + 1;
+        long[] bins = new long[sh + 2 * pad];
+
+        double bestAngle = 0, bestScore = -1;
+        for (double a = -DESKEW_MAX_ANGLE; a <= DESKEW_MAX_ANGLE + 1e-9; a += step) {
+            double tan = Math.tan(Math.toRadians(a));
+            java.util.Arrays.fill(bins, 0);
+            for (int i = 0; i < n; i++) {
+                int row = (int) Math.round(ys[i] - xs[i] * tan) + pad;
+                if (row >= 0 && row < bins.length) bins[row]++;
+            }
+            double score = 0;
+            for (int i = 1; i < bins.length; i++) {
+                long d = bins[i] - bins[i - 1];
+                score += (double) d * d;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestAngle = a;
+            }
+        }
+        return bestAngle;
+    }
+
+    private BufferedImage rotate(BufferedImage gray, double degrees) {
+        int w = gray.getWidth(), h = gray.getHeight();
+        BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(gray, AffineTransform.getRotateInstance(Math.toRadians(degrees), w / 2.0, h / 2.0), null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private BufferedImage cropMargins(BufferedImage bin) {
+        int w = bin.getWidth(), h = bin.getHeight();
+        byte[] px = pixels(bin);
+        int minX = w, minY = h, maxX = -1, maxY = -1;
+        for (int y = 0; y < h; y++) {
+            int row = y * w;
+            for (int x = 0; x < w; x++) {
+                if (px[row + x] == 0) {
+                    if (x < minX) minX = x;
+                    if (x > maxX) maxX = x;
+                    if (y < minY) minY = y;
+                    maxY = y;
+                }
+            }
+        }
+        if (maxX < 0) return bin; // blank page
+        minX = Math.max(0, minX - MARGIN_PADDING);
+        minY = Math.max(0, minY - MARGIN_PADDING);
+        maxX = Math.min(w - 1, maxX + MARGIN_PADDING);
+        maxY = Math.min(h - 1, maxY + MARGIN_PADDING);
+        if (minX == 0 && minY == 0 && maxX == w - 1 && maxY == h - 1) return bin;
+
+        // copy rather than getSubimage so the full-size raster can be collected
+        int cw = maxX - minX + 1, ch = maxY - minY + 1;
+        BufferedImage out = new BufferedImage(cw, ch, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] dst = pixels(out);
+        for (int y = 0; y < ch; y++) {
+            System.arraycopy(px, (minY + y) * w + minX, dst, y * cw, cw);
+        }
+        return out;
+    }
+}
@@ -1,5 +1,6 @@
 package com.hng.docxtractor.ocr;
 
+import java.awt.image.BufferedImage;
 import java.io.InputStream;
 
 /**
@@ -9,5 +10,23 @@ public interface OcrService {
     /**
      * Perform OCR on the provided image InputStream. Returns empty string on failure/no text.
      */
-    String doOcr(InputStream imageInputStream);
+    default String doOcr(InputStream imageInputStream) {
+        return doOcr(imageInputStream, null);
+    }
+
+    /**
+     * Same as {@link #doOcr(InputStream)} with an explicit tier; null means the configured default.
+     */
+    String doOcr(InputStream imageInputStream, OcrTier tier);
+
+    /**
+     * OCR an already decoded image (e.g. a rendered PDF page) rendered at {@code sourceDpi}.
+     */
+    String doOcr(BufferedImage image, int sourceDpi, OcrTier tier);
+
+    /**
+     * Load native libraries and language data ahead of the first real request.
+     */
+    default void warmUp() {
+    }
 }
@@ -0,0 +1,43 @@
+package com.hng.docxtractor.ocr;
+
+import com.hng.docxtractor.exception.ApiException;
+
+import java.util.Locale;
+
+/**
+ * Speed/accuracy presets. Each tier picks a tessdata variant (configured per tier),
+ * engine mode, page segmentation mode, working DPI and how much preprocessing to do.
+ */
+public enum OcrTier {
+    // tessdata_fast models, single-block segmentation (skips layout analysis), 200 DPI, no deskew
+    FAST(200, 1, 6, false),
+    // standard models, automatic segmentation, 300 DPI
+    BALANCED(300, 1, 3, true),
+    // tessdata_best models (float LSTM, slower but more accurate), automatic segmentation,
+    // pages rendered at 400 DPI for small print, finer deskew search
+    BEST(400, 1, 3, true);
+
+    public final int dpi;
+    public final int engineMode;   // tesseract OEM, 1 = LSTM only
+    public final int pageSegMode;  // tesseract PSM
+    public final boolean deskew;
+
+    OcrTier(int dpi, int engineMode, int pageSegMode, boolean deskew) {
+        this.dpi = dpi;
+        this.engineMode = engineMode;
+        this.pageSegMode = pageSegMode;
+        this.deskew = deskew;
+    }
+
+    /**
+     * Case-insensitive lookup; null/blank gives null (use the configured default).
+     */
+    public static OcrTier parse(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Unknown OCR tier '" + value + "'. Use fast, balanced or best.");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hng.docxtractor.ocr;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.sourceforge.tess4j.*;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,35 +10,60 @@ import jakarta.annotation.PostConstruct;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class TessOcrServiceImpl implements OcrService {
 
+    private final OcrImagePreprocessor preprocessor;
+
     @Value("${ocr.tessdata-path:/usr/share/tessdata}")
     private String tessDataPath;
     @Value("${ocr.language:eng}")
     private String language;
 
-    private ITesseract tesseract;
+    // tessdata variant per tier (e.g. tessdata_fast / tessdata_best); default to the main tessdata dir
+    @Value("${ocr.tier.fast.tessdata-path:${ocr.tessdata-path:/usr/share/tessdata}}")
+    private String fastTessDataPath;
+    @Value("${ocr.tier.balanced.tessdata-path:${ocr.tessdata-path:/usr/share/tessdata}}")
+    private String balancedTessDataPath;
+    @Value("${ocr.tier.best.tessdata-path:${ocr.tessdata-path:/usr/share/tessdata}}")
+    private String bestTessDataPath;
+
+    @Value("${ocr.default-tier:balanced}")
+    private String defaultTierName;
+
+    private OcrTier defaultTier;
     private boolean available = false;
 
     @PostConstruct
     public void init() {
         try {
-            tesseract = new Tesseract();
-            tesseract.setDatapath(tessDataPath);
-            tesseract.setLanguage(language);
+            defaultTier = OcrTier.parse(defaultTierName);
+            if (defaultTier == null) defaultTier = OcrTier.BALANCED;
+            fastTessDataPath = modelDirOrDefault(OcrTier.FAST, fastTessDataPath);
+            balancedTessDataPath = modelDirOrDefault(OcrTier.BALANCED, balancedTessDataPath);
+            bestTessDataPath = modelDirOrDefault(OcrTier.BEST, bestTessDataPath);
             available = true;
-            log.info("Tesseract initialized using datapath {}", tessDataPath);
+            log.info("Tesseract initialized using datapath {} (default tier {})", tessDataPath, defaultTier);
         } catch (Exception ex) {
             log.warn("Tess initialization failed: {}", ex.getMessage());
             available = false;
         }
     }
 
+    // a tier whose model directory isn't installed falls back to the main tessdata dir instead of failing every call
+    private String modelDirOrDefault(OcrTier tier, String dir) {
+        if (dir.equals(tessDataPath) || Files.isRegularFile(Path.of(dir, language + ".traineddata"))) return dir;
+        log.warn("No {}.traineddata in {} for OCR tier {}; using {}", language, dir, tier, tessDataPath);
+        return tessDataPath;
+    }
+
     @Override
-    public String doOcr(InputStream imageInputStream) {
+    public String doOcr(InputStream imageInputStream, OcrTier tier) {
         if (!available) {
             log.warn("OCR not available");
             return "";
@@ -45,7 +71,23 @@ public class TessOcrServiceImpl implements OcrService {
         try {
             BufferedImage img = ImageIO.read(imageInputStream);
             if (img == null) return "";
-            String res = tesseract.doOCR(img);
+            return doOcr(img, 0, tier);
+        } catch (Exception e) {
+            log.warn("OCR failure: {}", e.getMessage());
+            return "";
+        }
+    }
+
+    @Override
+    public String doOcr(BufferedImage image, int sourceDpi, OcrTier tier) {
+        if (!available) {
+            log.warn("OCR not available");
+            return "";
+        }
+        OcrTier effective = tier == null ? defaultTier : tier;
+        try {
+            BufferedImage prepared = preprocessor.prepare(image, effective, sourceDpi);
+            String res = engineFor(effective).doOCR(prepared);
             return res == null ? "" : res;
         } catch (TesseractException te) {
             log.warn("Tess exception: {}", te.getMessage());
@@ -55,4 +97,35 @@ public class TessOcrServiceImpl implements OcrService {
             return "";
         }
     }
+
+    /**
+     * The first doOCR loads libtesseract through JNA and reads the traineddata file; do it once on a
+     * blank image so the first scanned upload doesn't pay for it.
+     */
+    @Override
+    public void warmUp() {
+        if (!available) return;
+        try {
+            engineFor(defaultTier).doOCR(new BufferedImage(32, 32, BufferedImage.TYPE_BYTE_GRAY));
+        } catch (TesseractException | RuntimeException | LinkageError e) {
+            log.warn("Tesseract warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    // Tesseract instances hold a native handle while recognizing and are not thread-safe;
+    // they are cheap to build (the native API is initialized per doOCR call anyway), so one per call
+    private ITesseract engineFor(OcrTier tier) {
+        Tesseract t = new Tesseract();
+        t.setDatapath(switch (tier) {
+            case FAST -> fastTessDataPath;
+            case BALANCED -> balancedTessDataPath;
+            case BEST -> bestTessDataPath;
+        });
+        t.setLanguage(language);
+        t.setOcrEngineMode(tier.engineMode);
+        t.setPageSegMode(tier.pageSegMode);
+        // preprocessed images are at the tier's DPI; saying so skips tesseract's resolution guessing
+        t.setVariable("user_defined_dpi", String.valueOf(tier.dpi));
+        return t;
+    }
 }
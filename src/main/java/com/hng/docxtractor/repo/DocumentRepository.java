@@ -1,10 +1,208 @@
 package com.hng.docxtractor.repo;
 
 import com.hng.docxtractor.entity.Document;
+import com.hng.docxtractor.enums.DocumentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
-public interface DocumentRepository extends JpaRepository<Document, UUID> {
+public interface DocumentRepository extends JpaRepository<Document, UUID>, DocumentRepositoryCustom {
 
+    /**
+     * Compare-and-set claim: moves the row to PROCESSING only if it is claimable or its lease has expired.
+     * Returns 1 for the single winner, 0 for everyone else.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            update Document d
+               set d.status = :processing, d.leaseOwner = :owner, d.leaseExpiresAt = :expiresAt, d.updatedAt = :now
+             where d.id = :id
+               and (d.status in :claimable
+                    or (d.status = :processing and (d.leaseExpiresAt is null or d.leaseExpiresAt < :now)))""")
+    int claim(@Param("id") UUID id,
+              @Param("owner") String owner,
+              @Param("expiresAt") Instant expiresAt,
+              @Param("now") Instant now,
+              @Param("processing") DocumentStatus processing,
+              @Param("claimable") Collection<DocumentStatus> claimable);
+
+    /**
+     * Write the analysis outcome and release the lease, but only if the caller still owns it.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            update Document d
+               set d.status = :status, d.documentType = :documentType,
+                   d.documentTypeSource = :documentTypeSource, d.summary = :summary,
+                   d.metadataJson = :metadataJson, d.analyzed = :analyzed,
+                   d.leaseOwner = null, d.leaseExpiresAt = null, d.updatedAt = :now
+             where d.id = :id and d.leaseOwner = :owner""")
+    int completeLease(@Param("id") UUID id,
+                      @Param("owner") String owner,
+                      @Param("status") DocumentStatus status,
+                      @Param("documentType") String documentType,
+                      @Param("documentTypeSource") String documentTypeSource,
+                      @Param("summary") String summary,
+                      @Param("metadataJson") String metadataJson,
+                      @Param("analyzed") boolean analyzed,
+                      @Param("now") Instant now);
+
+    /**
+     * Extend a live lease; 0 if the caller no longer owns it.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update Document d set d.leaseExpiresAt = :expiresAt where d.id = :id and d.leaseOwner = :owner")
+    int renewLease(@Param("id") UUID id,
+                   @Param("owner") String owner,
+                   @Param("expiresAt") Instant expiresAt);
+
+    @Query("""
+            select d.id from Document d
+             where d.status = :processing and (d.leaseExpiresAt is null or d.leaseExpiresAt < :now)""")
+    List<UUID> findExpiredLeaseIds(@Param("now") Instant now,
+                                   @Param("processing") DocumentStatus processing);
+
+    /**
+     * Fail a row whose lease ran out (crashed or stalled worker). The expiry is re-checked here, so a row
+     * renewed or re-claimed after {@link #findExpiredLeaseIds} read it is left alone.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            update Document d
+               set d.status = :failed, d.leaseOwner = null, d.leaseExpiresAt = null, d.updatedAt = :now
+             where d.id = :id
+               and d.status = :processing and (d.leaseExpiresAt is null or d.leaseExpiresAt < :now)""")
+    int failExpiredLease(@Param("id") UUID id,
+                         @Param("now") Instant now,
+                         @Param("processing") DocumentStatus processing,
+                         @Param("failed") DocumentStatus failed);
+
+    /**
+     * Start extracting a direct upload: moves the row to EXTRACTING only from one of {@code from}, with
+     * {@code leaseExpiresAt} as the deadline after which the reaper gives up on it. {@code owner}
+     * identifies this run, so a run that was given up on can't write over a later retry.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            update Document d
+               set d.status = :extracting, d.leaseOwner = :owner, d.leaseExpiresAt = :expiresAt, d.updatedAt = :now
+             where d.id = :id and d.status in :from""")
+    int startExtraction(@Param("id") UUID id,
+                        @Param("from") Collection<DocumentStatus> from,
+                        @Param("extracting") DocumentStatus extracting,
+                        @Param("owner") String owner,
+                        @Param("expiresAt") Instant expiresAt,
+                        @Param("now") Instant now);
+
+    /**
+     * Record the outcome of an extraction, but only if the row is still EXTRACTING under this run;
+     * 0 if the reaper gave up on it or a retry started in the meantime.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            update Document d
+               set d.status = :status, d.extractedText = :text, d.containsImages = :containsImages,
+                   d.imageCount = :imageCount, d.leaseOwner = null, d.leaseExpiresAt = null, d.updatedAt = :now
+             where d.id = :id and d.status = :extracting and d.leaseOwner = :owner""")
+    int completeExtraction(@Param("id") UUID id,
+                           @Param("owner") String owner,
+                           @Param("extracting") DocumentStatus extracting,
+                           @Param("status") DocumentStatus status,
+                           @Param("text") String text,
+                           @Param("containsImages") boolean containsImages,
+                           @Param("imageCount") int imageCount,
+                           @Param("now") Instant now);
+
+    @Query("""
+            select d.id from Document d
+             where (d.status = :awaiting and d.createdAt < :uploadDeadline)
+                or (d.status = :extracting and (d.leaseExpiresAt is null or d.leaseExpiresAt < :now))""")
+    List<UUID> findStaleUploadIds(@Param("now") Instant now,
+                                  @Param("uploadDeadline") Instant uploadDeadline,
+                                  @Param("awaiting") DocumentStatus awaiting,
+                                  @Param("extracting") DocumentStatus extracting);
+
+    /**
+     * Give up on direct uploads never completed before {@code uploadDeadline}, and on extractions that
+     * outlived their deadline (crashed or stalled worker). The conditions are re-checked here, so a row
+     * that moved on after {@link #findStaleUploadIds} read it is left alone.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            update Document d
+               set d.status = :failed, d.leaseOwner = null, d.leaseExpiresAt = null, d.updatedAt = :now
+             where d.id in :ids
+               and ((d.status = :awaiting and d.createdAt < :uploadDeadline)
+                    or (d.status = :extracting and (d.leaseExpiresAt is null or d.leaseExpiresAt < :now)))""")
+    int failStaleUploads(@Param("ids") Collection<UUID> ids,
+                         @Param("now") Instant now,
+                         @Param("uploadDeadline") Instant uploadDeadline,
+                         @Param("awaiting") DocumentStatus awaiting,
+                         @Param("extracting") DocumentStatus extracting,
+                         @Param("failed") DocumentStatus failed);
+
+    /**
+     * Compare-and-set status change; 1 if this caller made the transition, 0 if the row wasn't in {@code from}.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update Document d set d.status = :to, d.updatedAt = :now where d.id = :id and d.status = :from")
+    int transition(@Param("id") UUID id,
+                   @Param("from") DocumentStatus from,
+                   @Param("to") DocumentStatus to,
+                   @Param("now") Instant now);
+
+    /**
+     * Change feed for the per-replica search index: rows written after ({@code since}, {@code afterId}),
+     * in (updatedAt, id) order.
+     */
+    @Query("""
+            select d from Document d
+             where d.updatedAt > :since or (d.updatedAt = :since and d.id > :afterId)
+             order by d.updatedAt, d.id""")
+    List<Document> findUpdatedSince(@Param("since") Instant since,
+                                    @Param("afterId") UUID afterId,
+                                    Pageable page);
+
+    /**
+     * IDs of documents usable as classifier training data, newest first: analyzed, labelled with any
+     * type, and not labelled by the classifier itself.
+     */
+    @Query("""
+            select d.id from Document d
+             where d.status = :completed and d.documentType is not null
+               and (d.documentTypeSource is null or d.documentTypeSource <> :excludedSource)
+             order by d.createdAt desc""")
+    List<UUID> findTrainingIds(@Param("completed") DocumentStatus completed,
+                               @Param("excludedSource") String excludedSource,
+                               Pageable page);
+
+    @Query("""
+            select d.documentType as documentType, d.originalFileName as originalFileName,
+                   d.extractedText as extractedText
+              from Document d where d.id in :ids""")
+    List<TrainingRow> findTrainingRows(@Param("ids") Collection<UUID> ids);
+
+    interface TrainingRow {
+        String getDocumentType();
+
+        String getOriginalFileName();
+
+        String getExtractedText();
+    }
 }
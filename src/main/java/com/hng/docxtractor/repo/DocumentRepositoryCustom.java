@@ -0,0 +1,33 @@
+package com.hng.docxtractor.repo;
+
+import com.hng.docxtractor.dto.DocumentExportRow;
+import com.hng.docxtractor.dto.DocumentSummaryDto;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.util.KeysetCursor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface DocumentRepositoryCustom {
+    /**
+     * Keyset (seek) page ordered by (createdAt, id). Selects scalar columns only.
+     *
+     * @param status    optional filter
+     * @param since     optional lower bound on createdAt (inclusive)
+     * @param after     position of the last row of the previous page, or null for the first page
+     * @param ascending oldest first when true, newest first otherwise
+     */
+    List<DocumentSummaryDto> findPage(DocumentStatus status, Instant since, KeysetCursor after, boolean ascending, int limit);
+
+    /**
+     * Forward-only stream of matching rows in (createdAt, id) order, fetched {@code fetchSize} rows
+     * at a time. Must be consumed (and closed) inside a read-only transaction.
+     *
+     * @param documentType optional, case-insensitive
+     * @param from         optional lower bound on createdAt (inclusive)
+     * @param to           optional upper bound on createdAt (exclusive)
+     */
+    Stream<DocumentExportRow> streamForExport(DocumentStatus status, String documentType, Instant from, Instant to,
+                                              boolean includeText, int fetchSize);
+}
@@ -0,0 +1,80 @@
+package com.hng.docxtractor.repo;
+
+import com.hng.docxtractor.dto.DocumentExportRow;
+import com.hng.docxtractor.dto.DocumentSummaryDto;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+public class DocumentRepositoryCustomImpl implements DocumentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<DocumentSummaryDto> findPage(DocumentStatus status, Instant since, KeysetCursor after, boolean ascending, int limit) {
+        // only the predicates that are actually used are emitted, so the planner can pick
+        // idx_documents_status_created / idx_documents_created for a straight index range scan
+        StringBuilder jpql = new StringBuilder("""
+                select new com.hng.docxtractor.dto.DocumentSummaryDto(
+                    d.id, d.originalFileName, d.contentType, d.sizeBytes, d.status, d.documentType, d.analyzed, d.createdAt)
+                from Document d
+                where d.createdAt is not null""");
+        if (status != null) jpql.append(" and d.status = :status");
+        if (since != null) jpql.append(" and d.createdAt >= :since");
+        if (after != null) {
+            String op = ascending ? ">" : "<";
+            // the plain bound is redundant but is what gives the planner an index range start; the OR alone
+            // is not sargable on PostgreSQL and deep pages would scan from the top of the index
+            jpql.append(" and d.createdAt ").append(op).append("= :afterCreatedAt");
+            jpql.append(" and (d.createdAt ").append(op).append(" :afterCreatedAt")
+                    .append(" or (d.createdAt = :afterCreatedAt and d.id ").append(op).append(" :afterId))");
+        }
+        String dir = ascending ? "asc" : "desc";
+        jpql.append(" order by d.createdAt ").append(dir).append(", d.id ").append(dir);
+
+        TypedQuery<DocumentSummaryDto> q = em.createQuery(jpql.toString(), DocumentSummaryDto.class);
+        if (status != null) q.setParameter("status", status);
+        if (since != null) q.setParameter("since", since);
+        if (after != null) {
+            q.setParameter("afterCreatedAt", after.createdAt);
+            q.setParameter("afterId", after.id);
+        }
+        return q.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<DocumentExportRow> streamForExport(DocumentStatus status, String documentType, Instant from, Instant to,
+                                                     boolean includeText, int fetchSize) {
+        StringBuilder jpql = new StringBuilder("""
+                select new com.hng.docxtractor.dto.DocumentExportRow(
+                    d.id, d.originalFileName, d.contentType, d.sizeBytes, d.status, d.documentType, d.documentTypeSource,
+                    d.analyzed, d.createdAt, d.summary, d.metadataJson, """)
+                .append(includeText ? "d.extractedText" : "cast(null as String)")
+                .append(")\nfrom Document d\nwhere d.createdAt is not null");
+        if (status != null) jpql.append(" and d.status = :status");
+        if (documentType != null) jpql.append(" and lower(d.documentType) = :documentType");
+        if (from != null) jpql.append(" and d.createdAt >= :from");
+        if (to != null) jpql.append(" and d.createdAt < :to");
+        jpql.append(" order by d.createdAt asc, d.id asc");
+
+        TypedQuery<DocumentExportRow> q = em.createQuery(jpql.toString(), DocumentExportRow.class);
+        if (status != null) q.setParameter("status", status);
+        if (documentType != null) q.setParameter("documentType", documentType.toLowerCase(Locale.ROOT));
+        if (from != null) q.setParameter("from", from);
+        if (to != null) q.setParameter("to", to);
+        // getResultStream scrolls forward-only; the fetch size makes the driver use a server-side cursor
+        // (PostgreSQL only does so inside a transaction, hence the read-only transaction around the export)
+        return q.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
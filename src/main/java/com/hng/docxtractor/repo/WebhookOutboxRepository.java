@@ -0,0 +1,92 @@
+package com.hng.docxtractor.repo;
+
+import com.hng.docxtractor.entity.WebhookOutboxEntry;
+import com.hng.docxtractor.enums.WebhookDeliveryStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface WebhookOutboxRepository extends JpaRepository<WebhookOutboxEntry, UUID> {
+
+    /**
+     * Candidates for the next delivery round; they still have to be claimed.
+     */
+    @Query("""
+            select e.id from WebhookOutboxEntry e
+             where e.status = :pending and e.nextAttemptAt <= :now
+               and (e.leaseExpiresAt is null or e.leaseExpiresAt < :now)
+             order by e.nextAttemptAt""")
+    List<UUID> findDue(@Param("pending") WebhookDeliveryStatus pending,
+                       @Param("now") Instant now,
+                       Pageable page);
+
+    /**
+     * Compare-and-set claim of the candidates; rows another worker leased in the meantime are skipped.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            update WebhookOutboxEntry e
+               set e.leaseOwner = :owner, e.leaseExpiresAt = :expiresAt
+             where e.id in :ids and e.status = :pending
+               and (e.leaseExpiresAt is null or e.leaseExpiresAt < :now)""")
+    int claim(@Param("ids") Collection<UUID> ids,
+              @Param("owner") String owner,
+              @Param("expiresAt") Instant expiresAt,
+              @Param("now") Instant now,
+              @Param("pending") WebhookDeliveryStatus pending);
+
+    List<WebhookOutboxEntry> findByLeaseOwner(String leaseOwner);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            update WebhookOutboxEntry e
+               set e.status = :delivered, e.deliveredAt = :now, e.attempts = e.attempts + 1,
+                   e.leaseOwner = null, e.leaseExpiresAt = null
+             where e.id in :ids and e.leaseOwner = :owner""")
+    int markDelivered(@Param("ids") Collection<UUID> ids,
+                      @Param("owner") String owner,
+                      @Param("delivered") WebhookDeliveryStatus delivered,
+                      @Param("now") Instant now);
+
+    /**
+     * Count a failed attempt and schedule the retry; see {@link #markDead} for giving up.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            update WebhookOutboxEntry e
+               set e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError,
+                   e.leaseOwner = null, e.leaseExpiresAt = null
+             where e.id in :ids and e.leaseOwner = :owner""")
+    int markFailed(@Param("ids") Collection<UUID> ids,
+                   @Param("owner") String owner,
+                   @Param("nextAttemptAt") Instant nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            update WebhookOutboxEntry e
+               set e.status = :dead
+             where e.id in :ids and e.status = :pending and e.attempts >= :maxAttempts""")
+    int markDead(@Param("ids") Collection<UUID> ids,
+                 @Param("maxAttempts") int maxAttempts,
+                 @Param("pending") WebhookDeliveryStatus pending,
+                 @Param("dead") WebhookDeliveryStatus dead);
+
+    @Modifying
+    @Transactional
+    @Query("delete from WebhookOutboxEntry e where e.status = :delivered and e.deliveredAt < :before")
+    int purgeDelivered(@Param("delivered") WebhookDeliveryStatus delivered,
+                       @Param("before") Instant before);
+}
@@ -0,0 +1,11 @@
+package com.hng.docxtractor.repo;
+
+import com.hng.docxtractor.entity.WebhookSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface WebhookSubscriptionRepository extends JpaRepository<WebhookSubscription, UUID> {
+    List<WebhookSubscription> findByClientId(String clientId);
+}
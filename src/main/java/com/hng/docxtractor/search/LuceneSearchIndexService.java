@@ -0,0 +1,311 @@
+package com.hng.docxtractor.search;
+
+import com.hng.docxtractor.dto.DocumentSearchResponse;
+import com.hng.docxtractor.entity.Document;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.exception.ApiException;
+import com.hng.docxtractor.repo.DocumentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.email.UAX29URLEmailAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.*;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LuceneSearchIndexService implements SearchIndexService {
+
+    private static final String F_ID = "id";
+    private static final String F_FILE_NAME = "fileName";
+    private static final String F_TYPE = "documentType";
+    private static final String F_STATUS = "status";
+    private static final String F_TEXT = "text";
+    private static final String F_SUMMARY = "summary";
+    private static final String F_ENTITIES = "entities";
+    private static final String F_CREATED = "createdAt";
+
+    private static final String[] SEARCH_FIELDS = {F_TEXT, F_SUMMARY, F_FILE_NAME, F_ENTITIES};
+    private static final Map<String, Float> BOOSTS = Map.of(F_FILE_NAME, 2f, F_SUMMARY, 1.5f, F_ENTITIES, 1.5f);
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int REINDEX_BATCH = 100;
+    // deepest hit a page may reach; keeps (page + 1) * size bounded
+    private static final int MAX_RESULT_WINDOW = 10_000;
+    // commit user data: how far the index has caught up with documents.updated_at
+    private static final String SYNCED_THROUGH = "syncedThrough";
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final DocumentRepository docRepo;
+
+    @Value("${search.index-path:./data/search-index}")
+    private String indexPath;
+
+    // rows committed this much later than their updated_at (long transactions, clock skew between
+    // replicas) are still picked up by the next pass
+    @Value("${search.sync-overlap:PT1M}")
+    private Duration syncOverlap;
+
+    // pages of REINDEX_BATCH per run, so catching up a large backlog doesn't hold the scheduler thread
+    @Value("${search.sync-max-pages:10}")
+    private int syncMaxPages;
+
+    // entities hold emails/urls, which the standard tokenizer would split apart
+    private final Analyzer analyzer = new PerFieldAnalyzerWrapper(
+            new StandardAnalyzer(), Map.of(F_ENTITIES, new UAX29URLEmailAnalyzer()));
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    // everything updated up to this instant (less syncOverlap) is in the index
+    private Instant syncedThrough = Instant.EPOCH;
+    // keyset position of a pass that ran out of pages; null between passes
+    private Instant cursorAt;
+    private UUID cursorId;
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = FSDirectory.open(Path.of(indexPath));
+        IndexWriterConfig cfg = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(directory, cfg);
+        searcherManager = new SearcherManager(writer, null);
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> e : commitData) {
+                if (SYNCED_THROUGH.equals(e.getKey())) syncedThrough = Instant.parse(e.getValue());
+            }
+        }
+        log.info("Search index opened at {} ({} docs, synced through {})",
+                indexPath, writer.getDocStats().numDocs, syncedThrough);
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            log.warn("Failed to close search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Each replica keeps its own index, so writes made on other replicas arrive through this change feed
+     * on documents.updated_at; every replica converges within one interval. The local index()/reindex()
+     * calls only make this replica's own writes visible sooner. An empty or wiped index starts from the
+     * epoch and catches up in the background.
+     */
+    @Scheduled(fixedDelayString = "${search.sync-interval-ms:5000}")
+    public void syncFromDatabase() {
+        try {
+            if (cursorAt == null) {
+                Instant from = syncedThrough.minus(syncOverlap);
+                cursorAt = from.isBefore(Instant.EPOCH) ? Instant.EPOCH : from;
+                cursorId = MIN_ID;
+            }
+            int written = 0;
+            for (int i = 0; i < syncMaxPages; i++) {
+                List<Document> batch = docRepo.findUpdatedSince(cursorAt, cursorId, PageRequest.of(0, REINDEX_BATCH));
+                for (Document doc : batch) {
+                    update(doc);
+                    if (doc.getUpdatedAt() != null) cursorAt = doc.getUpdatedAt();
+                    cursorId = doc.getId();
+                    if (cursorAt.isAfter(syncedThrough)) syncedThrough = cursorAt;
+                }
+                written += batch.size();
+                if (batch.size() < REINDEX_BATCH) {
+                    cursorAt = null;
+                    break;
+                }
+            }
+            if (written > 0) {
+                searcherManager.maybeRefresh();
+                writer.setLiveCommitData(Map.of(SYNCED_THROUGH, syncedThrough.toString()).entrySet());
+            }
+        } catch (Exception e) {
+            log.warn("Search index sync failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void index(Document doc) {
+        if (doc == null || doc.getId() == null) return;
+        afterCommit(() -> write(doc));
+    }
+
+    @Override
+    public void reindex(Collection<UUID> ids) {
+        if (ids == null || ids.isEmpty()) return;
+        List<UUID> copy = List.copyOf(ids);
+        afterCommit(() -> {
+            try {
+                docRepo.findAllById(copy).forEach(this::write);
+            } catch (Exception e) {
+                log.warn("Failed to reindex {} document(s): {}", copy.size(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Changes are searchable as soon as the searcher is refreshed; fsyncing them to disk is batched here
+     * rather than paid per document. A crash loses at most one interval; the watermark is committed with
+     * the documents it covers, so the next sync re-reads them.
+     */
+    @Scheduled(fixedDelayString = "${search.commit-interval-ms:5000}")
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) writer.commit();
+        } catch (IOException e) {
+            log.warn("Failed to commit search index: {}", e.getMessage());
+        }
+    }
+
+    private static void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    private void write(Document doc) {
+        try {
+            update(doc);
+            searcherManager.maybeRefresh();
+        } catch (Exception e) {
+            log.warn("Failed to index document {}: {}", doc.getId(), e.getMessage());
+        }
+    }
+
+    private void update(Document doc) throws IOException {
+        String id = doc.getId().toString();
+        // createdAt is only populated on insert, which may not have been flushed yet at upload time
+        long created = doc.getCreatedAt() == null ? System.currentTimeMillis() : doc.getCreatedAt().toEpochMilli();
+
+        org.apache.lucene.document.Document d = new org.apache.lucene.document.Document();
+        d.add(new StringField(F_ID, id, Field.Store.YES));
+        d.add(new TextField(F_FILE_NAME, nz(doc.getOriginalFileName()), Field.Store.YES));
+        if (doc.getDocumentType() != null) {
+            d.add(new StringField(F_TYPE, doc.getDocumentType().toLowerCase(Locale.ROOT), Field.Store.YES));
+        }
+        d.add(new StringField(F_STATUS, doc.getStatus().name(), Field.Store.YES));
+        d.add(new TextField(F_TEXT, nz(doc.getExtractedText()), Field.Store.NO));
+        d.add(new TextField(F_SUMMARY, nz(doc.getSummary()), Field.Store.YES));
+        d.add(new TextField(F_ENTITIES, nz(doc.getMetadataJson()), Field.Store.NO));
+        d.add(new LongPoint(F_CREATED, created));
+        d.add(new StoredField(F_CREATED, created));
+        d.add(new NumericDocValuesField(F_CREATED, created));
+
+        writer.updateDocument(new Term(F_ID, id), d);
+    }
+
+    @Override
+    public DocumentSearchResponse search(String query, String documentType, DocumentStatus status, int page, int size) {
+        long start = System.nanoTime();
+        int pageSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        int pageNo = Math.min(Math.max(0, page), MAX_RESULT_WINDOW / pageSize - 1);
+        boolean hasText = query != null && !query.isBlank();
+
+        BooleanQuery.Builder b = new BooleanQuery.Builder();
+        b.add(hasText ? parse(query) : new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        if (documentType != null && !documentType.isBlank()) {
+            b.add(new TermQuery(new Term(F_TYPE, documentType.toLowerCase(Locale.ROOT))), BooleanClause.Occur.FILTER);
+        }
+        if (status != null) {
+            b.add(new TermQuery(new Term(F_STATUS, status.name())), BooleanClause.Occur.FILTER);
+        }
+
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            int topN = (pageNo + 1) * pageSize;
+            TopDocs top = hasText
+                    ? searcher.search(b.build(), topN)
+                    : searcher.search(b.build(), topN, new Sort(new SortField(F_CREATED, SortField.Type.LONG, true)));
+
+            StoredFields stored = searcher.storedFields();
+            List<DocumentSearchResponse.Hit> hits = new ArrayList<>();
+            for (int i = pageNo * pageSize; i < top.scoreDocs.length; i++) {
+                ScoreDoc sd = top.scoreDocs[i];
+                org.apache.lucene.document.Document d = stored.document(sd.doc);
+                String type = d.get(F_TYPE);
+                hits.add(DocumentSearchResponse.Hit.builder()
+                        .id(UUID.fromString(d.get(F_ID)))
+                        .fileName(d.get(F_FILE_NAME))
+                        .documentType(type)
+                        .status(DocumentStatus.valueOf(d.get(F_STATUS)))
+                        .summary(d.get(F_SUMMARY))
+                        .createdAt(Instant.ofEpochMilli(d.getField(F_CREATED).numericValue().longValue()))
+                        .score(Float.isNaN(sd.score) ? 0f : sd.score)
+                        .build());
+            }
+
+            return DocumentSearchResponse.builder()
+                    .totalHits(top.totalHits.value)
+                    .page(pageNo)
+                    .size(pageSize)
+                    .tookMs((System.nanoTime() - start) / 1_000_000)
+                    .hits(hits)
+                    .build();
+        } catch (IOException e) {
+            throw new ApiException("Search failed: " + e.getMessage(), e);
+        } finally {
+            if (searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                } catch (IOException e) {
+                    log.warn("Failed to release searcher: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    // accept Lucene syntax (phrases, AND/OR) but fall back to a plain term search on a syntax error
+    private Query parse(String query) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(SEARCH_FIELDS, analyzer, BOOSTS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(query);
+        } catch (ParseException e) {
+            try {
+                return parser.parse(QueryParser.escape(query));
+            } catch (ParseException ex) {
+                throw new ApiException("Invalid search query: " + query);
+            }
+        }
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
+    }
+}
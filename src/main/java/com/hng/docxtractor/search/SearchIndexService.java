@@ -0,0 +1,33 @@
+package com.hng.docxtractor.search;
+
+import com.hng.docxtractor.dto.DocumentSearchResponse;
+import com.hng.docxtractor.entity.Document;
+import com.hng.docxtractor.enums.DocumentStatus;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Full-text index over extracted text, summary and entities. Updated incrementally as
+ * documents move through extraction and analysis.
+ */
+public interface SearchIndexService {
+    /**
+     * Add or replace the index entry for this document. Never throws; indexing failures are logged.
+     * Inside a transaction the entry is written after commit, so a rollback leaves no trace in the index.
+     */
+    void index(Document doc);
+
+    /**
+     * Re-read the documents from the database and refresh their entries (after commit when inside a
+     * transaction). For changes made through bulk/conditional UPDATEs, e.g. status transitions.
+     */
+    void reindex(Collection<UUID> ids);
+
+    /**
+     * @param query         free text (Lucene query syntax accepted); blank matches everything, newest first
+     * @param documentType  optional exact filter
+     * @param status        optional exact filter
+     */
+    DocumentSearchResponse search(String query, String documentType, DocumentStatus status, int page, int size);
+}
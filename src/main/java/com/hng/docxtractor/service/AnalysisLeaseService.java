@@ -0,0 +1,23 @@
+package com.hng.docxtractor.service;
+
+import com.hng.docxtractor.entity.Document;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Makes sure each document is analyzed by exactly one worker across all replicas.
+ */
+public interface AnalysisLeaseService {
+    /**
+     * Atomically claim the document for analysis. Empty if another worker holds a live lease
+     * or the document is not in a claimable state.
+     */
+    Optional<Document> claim(UUID id);
+
+    /**
+     * Persist the analysis result held on {@code doc}, queue its completion webhooks and release the lease.
+     * Returns false if the lease was lost (expired and re-claimed); the result is then discarded.
+     */
+    boolean complete(Document doc);
+}
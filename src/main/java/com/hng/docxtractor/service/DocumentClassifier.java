@@ -0,0 +1,21 @@
+package com.hng.docxtractor.service;
+
+import java.util.Optional;
+
+/**
+ * In-process document-type classifier, trained from documents the LLM has already labelled.
+ */
+public interface DocumentClassifier {
+
+    String SOURCE_LLM = "llm";
+    String SOURCE_CLASSIFIER = "classifier";
+
+    /**
+     * Best guess with its probability; empty while no model has been trained, or when the document
+     * looks most like a type the model can't name.
+     */
+    Optional<Prediction> classify(String fileName, String text);
+
+    record Prediction(String documentType, double confidence) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.hng.docxtractor.service;
+
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+/**
+ * Bulk export of analysis results, streamed row by row from a database cursor.
+ */
+public interface DocumentExportService {
+
+    /**
+     * Write every matching document to {@code out}. Nothing is buffered beyond the writer's chunk,
+     * so memory use is independent of the number of rows.
+     *
+     * @param documentType optional, case-insensitive
+     * @param from         optional lower bound on createdAt (inclusive)
+     * @param to           optional upper bound on createdAt (exclusive)
+     * @param includeText  also export the (large) extracted text column
+     */
+    void export(DocumentStatus status, String documentType, Instant from, Instant to,
+                ExportFormat format, boolean includeText, OutputStream out) throws IOException;
+}
@@ -1,16 +1,50 @@
 package com.hng.docxtractor.service;
 
+import com.hng.docxtractor.dto.DirectUploadRequest;
+import com.hng.docxtractor.dto.DirectUploadResponse;
+import com.hng.docxtractor.dto.DocumentPageResponse;
 import com.hng.docxtractor.dto.DocumentUploadResponse;
 import com.hng.docxtractor.dto.DocumentDetailsDto;
 import com.hng.docxtractor.entity.Document;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.ocr.OcrTier;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface DocumentService {
-    DocumentUploadResponse uploadDocument(MultipartFile file);
-    DocumentUploadResponse analyzeDocument(UUID id);
+    DocumentUploadResponse uploadDocument(MultipartFile file, OcrTier ocrTier, String clientId, String callbackUrl);
+    /**
+     * Register a document and hand out a presigned URL so the client uploads straight to object storage.
+     */
+    DirectUploadResponse createDirectUpload(DirectUploadRequest request, String clientId);
+
+    /**
+     * Confirm a direct upload landed in storage and move it to EXTRACTING. Empty if it was already
+     * completed (the caller then must not start extraction again).
+     */
+    Optional<Document> completeDirectUpload(UUID id);
+
+    /**
+     * Put a COMPLETED document that was classified locally (no summary) back to PENDING so it can be
+     * re-analyzed with a summary. False if it isn't in that state.
+     */
+    boolean reopenForSummary(UUID id);
     DocumentDetailsDto getDocument(UUID id);
+    DocumentPageResponse listDocuments(DocumentStatus status, Instant since, String cursor, boolean ascending, int limit);
+
+    /**
+     * @param summaryRequested when false and the local classifier is confident, the LLM is skipped
+     */
+    void runAnalysisAsync(Document doc, boolean summaryRequested);
+
+    void runExtractionAsync(Document doc);
 
-    void runAnalysisAsync(Document doc);
+    /**
+     * Give up on an extraction that was claimed but could not be started (e.g. the executor is full);
+     * the document ends in EXTRACTION_FAILED, from which complete-upload can be retried.
+     */
+    void abortExtraction(Document doc);
 }
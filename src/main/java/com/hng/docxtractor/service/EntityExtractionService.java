@@ -0,0 +1,23 @@
+package com.hng.docxtractor.service;
+
+import java.util.List;
+
+public interface EntityExtractionService {
+    /**
+     * Find the deterministic entities (emails, phones, dates, amounts) in a single pass over the text.
+     */
+    ExtractedEntities extract(String text);
+
+    class ExtractedEntities {
+        public final List<String> emails;
+        public final List<String> phones;
+        public final List<String> dates;
+        public final List<String> amounts;
+        public ExtractedEntities(List<String> emails, List<String> phones, List<String> dates, List<String> amounts) {
+            this.emails = emails;
+            this.phones = phones;
+            this.dates = dates;
+            this.amounts = amounts;
+        }
+    }
+}
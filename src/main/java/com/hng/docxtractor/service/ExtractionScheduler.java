@@ -0,0 +1,19 @@
+package com.hng.docxtractor.service;
+
+import com.hng.docxtractor.ocr.OcrTier;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Queues extraction work in front of {@link TextExtractionService}. Cheap documents go through a
+ * fast lane, expensive ones are split into page slices in a bulk lane, and each lane is shared
+ * round-robin between clients so one large batch can't hold everyone else up.
+ */
+public interface ExtractionScheduler {
+
+    /**
+     * Extract {@code file}, blocking until its (possibly sliced) work has run.
+     *
+     * @param clientId tenant the work is charged to; null/blank share an anonymous queue
+     */
+    TextExtractionService.TextExtractionResult extract(MultipartFile file, OcrTier ocrTier, String clientId) throws Exception;
+}
@@ -5,6 +5,12 @@ import com.hng.docxtractor.service.LlmService.LlmResult;
 public interface LlmService {
     LlmResult analyze(String fileName, String fileType, String extractedText, boolean hasImages, int imageCount);
 
+    /**
+     * Local-first variant: only asks the model for the fuzzy fields (documentType, summary, names).
+     * Deterministic entities are expected to come from {@link EntityExtractionService}.
+     */
+    LlmResult analyzeFuzzy(String fileName, String fileType, String extractedText, boolean hasImages, int imageCount);
+
     class LlmResult {
         public final String documentType;
         public final String summary;
@@ -2,9 +2,30 @@ package com.hng.docxtractor.service;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.time.Duration;
+
 public interface StorageService {
     /**
      * Upload file and return storage path (bucket/object) or URL.
      */
     String upload(String bucket, String objectName, MultipartFile file) throws Exception;
+
+    /**
+     * URL a client can PUT the object's bytes to directly, valid for {@code expiry}.
+     */
+    String presignedPutUrl(String bucket, String objectName, Duration expiry) throws Exception;
+
+    /**
+     * Size in bytes of the object at a storage path returned by {@link #upload} / built as bucket/object,
+     * or -1 if it doesn't exist.
+     */
+    long size(String storagePath) throws Exception;
+
+    /**
+     * Stream the object's content; the caller closes the stream.
+     */
+    InputStream open(String storagePath) throws Exception;
+
+    void delete(String storagePath) throws Exception;
 }
@@ -1,12 +1,43 @@
 package com.hng.docxtractor.service;
 
+import com.hng.docxtractor.ocr.OcrTier;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
+import java.util.List;
+
 public interface TextExtractionService {
     /**
      * Extract text from uploaded file and return a result object containing text + metadata
      */
-    TextExtractionResult extractText(MultipartFile file) throws Exception;
+    default TextExtractionResult extractText(MultipartFile file) throws Exception {
+        return extractText(file, null);
+    }
+
+    /**
+     * Same as {@link #extractText(MultipartFile)}, OCR-ing scanned content at the given tier
+     * (null = configured default for the file type).
+     */
+    TextExtractionResult extractText(MultipartFile file, OcrTier ocrTier) throws Exception;
+
+    /**
+     * First pass over a large PDF, parsing it once: the text layer and the number of pages with
+     * visible content, without OCR. Whether the document needs OCR is decided here for the whole
+     * document; if it does, it is also split into files of {@code pagesPerSlice} pages under
+     * {@code sliceDir} for {@link #ocrPdf}, so no slice has to open the full document again.
+     */
+    PdfSplit splitPdf(MultipartFile file, int pagesPerSlice, Path sliceDir) throws Exception;
+
+    /**
+     * OCR every page of a PDF (usually one slice written by {@link #splitPdf}), ignoring its text layer.
+     */
+    TextExtractionResult ocrPdf(MultipartFile file, OcrTier ocrTier) throws Exception;
+
+    /**
+     * @param ocrSlices slice files in page order; empty when the text layer is all there is to extract
+     */
+    record PdfSplit(TextExtractionResult textLayer, List<Path> ocrSlices) {
+    }
 
     class TextExtractionResult {
         public final String text;
@@ -0,0 +1,14 @@
+package com.hng.docxtractor.service;
+
+public interface TextNormalizationService {
+    /**
+     * Clean raw extracted/OCR text: collapse whitespace, re-join hyphenated line breaks,
+     * drop repeated page headers/footers and lines that are mostly OCR garbage.
+     */
+    String normalize(String text);
+
+    /**
+     * Normalize and then truncate so the result fits the configured prompt token budget.
+     */
+    String prepareForPrompt(String text);
+}
@@ -0,0 +1,37 @@
+package com.hng.docxtractor.service;
+
+import com.hng.docxtractor.dto.WebhookSubscriptionDto;
+import com.hng.docxtractor.entity.Document;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Completion callbacks, so clients don't have to poll for analysis results.
+ */
+public interface WebhookService {
+    /**
+     * Subscription management requires the client's key (see webhook.client-keys), not just its id.
+     */
+    WebhookSubscriptionDto register(String clientId, String clientKey, String url);
+
+    List<WebhookSubscriptionDto> list(String clientId, String clientKey);
+
+    void delete(String clientId, String clientKey, UUID id);
+
+    /**
+     * Check a per-upload callbackUrl; returns it trimmed, or null when none was given.
+     */
+    String validateCallbackUrl(String url);
+
+    /**
+     * The key that signs callbacks for {@code documentId}'s callbackUrl; only returned to the uploader.
+     */
+    String callbackSecret(UUID documentId);
+
+    /**
+     * Queue notifications for the analysis outcome held on {@code doc} (its callbackUrl and its
+     * client's subscriptions). Call inside the transaction that records the outcome.
+     */
+    void enqueueCompletion(Document doc);
+}
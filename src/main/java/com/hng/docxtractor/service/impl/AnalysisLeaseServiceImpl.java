@@ -0,0 +1,170 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.cache.DocumentResponseCache;
+import com.hng.docxtractor.entity.Document;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.repo.DocumentRepository;
+import com.hng.docxtractor.search.SearchIndexService;
+import com.hng.docxtractor.service.AnalysisLeaseService;
+import com.hng.docxtractor.service.WebhookService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalysisLeaseServiceImpl implements AnalysisLeaseService {
+
+    private static final Set<DocumentStatus> CLAIMABLE = EnumSet.of(DocumentStatus.PENDING, DocumentStatus.FAILED);
+
+    private final DocumentRepository docRepo;
+    private final DocumentResponseCache responseCache;
+    private final WebhookService webhookService;
+    private final SearchIndexService searchIndexService;
+
+    @Value("${app.instance-id:}")
+    private String instanceId;
+
+    @Value("${analysis.lease-duration:PT10M}")
+    private Duration leaseDuration;
+
+    // leases held by this instance are renewed while their analysis runs, but not past this age,
+    // so a hung worker thread still lets the reaper hand the document to someone else eventually
+    @Value("${analysis.max-duration:PT1H}")
+    private Duration maxDuration;
+
+    @Value("${storage.presign.expiry:PT15M}")
+    private Duration presignExpiry;
+
+    // how long after its upload URL expires a direct upload may still be completed before it is given up on
+    @Value("${app.upload.direct.complete-grace:PT1H}")
+    private Duration completeGrace;
+
+    private record HeldLease(String owner, Instant claimedAt) {
+    }
+
+    private final Map<UUID, HeldLease> held = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (instanceId == null || instanceId.isBlank()) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "unknown";
+            }
+            instanceId = host + "-" + ProcessHandle.current().pid();
+        }
+        log.info("Analysis leases owned as {} (duration {})", instanceId, leaseDuration);
+    }
+
+    @Override
+    public Optional<Document> claim(UUID id) {
+        // unique per claim, so a second claim from this same instance doesn't count as the owner either
+        String owner = instanceId + ":" + UUID.randomUUID();
+        Instant now = Instant.now();
+        int updated = docRepo.claim(id, owner, now.plus(leaseDuration), now, DocumentStatus.PROCESSING, CLAIMABLE);
+        if (updated == 0) return Optional.empty();
+        held.put(id, new HeldLease(owner, now));
+        responseCache.invalidate(id);
+        searchIndexService.reindex(List.of(id));
+        return docRepo.findById(id);
+    }
+
+    @Override
+    @Transactional
+    public boolean complete(Document doc) {
+        held.remove(doc.getId());
+        int updated = docRepo.completeLease(
+                doc.getId(),
+                doc.getLeaseOwner(),
+                doc.getStatus(),
+                doc.getDocumentType(),
+                doc.getDocumentTypeSource(),
+                doc.getSummary(),
+                doc.getMetadataJson(),
+                doc.isAnalyzed(),
+                Instant.now());
+        if (updated == 0) {
+            log.warn("Lease on document {} was lost before analysis finished; discarding result", doc.getId());
+            return false;
+        }
+        // same transaction as the outcome, so a recorded result always gets its notification
+        webhookService.enqueueCompletion(doc);
+        responseCache.invalidate(doc.getId());
+        doc.setLeaseOwner(null);
+        doc.setLeaseExpiresAt(null);
+        return true;
+    }
+
+    /**
+     * Heartbeat: push out the expiry of leases whose analysis is still running here, so a slow LLM call
+     * isn't mistaken for a crashed worker.
+     */
+    @Scheduled(fixedDelayString = "${analysis.lease-renew-interval-ms:120000}")
+    public void renewHeldLeases() {
+        Instant now = Instant.now();
+        held.forEach((id, lease) -> {
+            if (lease.claimedAt().plus(maxDuration).isBefore(now)) {
+                log.warn("Analysis of document {} exceeded {}; no longer renewing its lease", id, maxDuration);
+                held.remove(id);
+            } else if (docRepo.renewLease(id, lease.owner(), now.plus(leaseDuration)) == 0) {
+                held.remove(id); // lost or already released
+            }
+        });
+    }
+
+    /**
+     * Fail documents stuck in PROCESSING because their worker crashed or stalled past the lease. Nothing
+     * picks PENDING rows up again on its own, so they end in FAILED instead: the caller hears about it
+     * through the usual document.failed webhook and can retry with POST /documents/{id}/analyze.
+     */
+    @Scheduled(fixedDelayString = "${analysis.reaper-interval-ms:60000}")
+    @Transactional
+    public void failExpiredLeases() {
+        Instant now = Instant.now();
+        List<UUID> expired = docRepo.findExpiredLeaseIds(now, DocumentStatus.PROCESSING);
+        if (expired.isEmpty()) return;
+        int failed = 0;
+        for (UUID id : expired) {
+            if (docRepo.failExpiredLease(id, now, DocumentStatus.PROCESSING, DocumentStatus.FAILED) == 0) continue;
+            held.remove(id);
+            responseCache.invalidate(id);
+            // same transaction as the status change, like complete()
+            docRepo.findById(id).ifPresent(webhookService::enqueueCompletion);
+            failed++;
+        }
+        if (failed > 0) log.info("Marked {} document(s) with expired analysis leases FAILED", failed);
+        searchIndexService.reindex(expired);
+    }
+
+    /**
+     * Give up on direct uploads nobody completed, and on extractions whose worker crashed or stalled.
+     * Both end in EXTRACTION_FAILED, which is never claimed for analysis; complete-upload can retry
+     * them while the object is still in storage.
+     */
+    @Scheduled(fixedDelayString = "${analysis.reaper-interval-ms:60000}")
+    public void failStaleUploads() {
+        Instant now = Instant.now();
+        Instant uploadDeadline = now.minus(presignExpiry).minus(completeGrace);
+        List<UUID> stale = docRepo.findStaleUploadIds(now, uploadDeadline,
+                DocumentStatus.AWAITING_UPLOAD, DocumentStatus.EXTRACTING);
+        if (stale.isEmpty()) return;
+        int failed = docRepo.failStaleUploads(stale, now, uploadDeadline,
+                DocumentStatus.AWAITING_UPLOAD, DocumentStatus.EXTRACTING, DocumentStatus.EXTRACTION_FAILED);
+        if (failed > 0) log.info("Marked {} abandoned upload(s) or stalled extraction(s) EXTRACTION_FAILED", failed);
+        searchIndexService.reindex(stale);
+    }
+}
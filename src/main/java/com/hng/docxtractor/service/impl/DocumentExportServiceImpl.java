@@ -0,0 +1,150 @@
+package com.hng.docxtractor.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hng.docxtractor.dto.DocumentExportRow;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.enums.ExportFormat;
+import com.hng.docxtractor.repo.DocumentRepository;
+import com.hng.docxtractor.service.DocumentExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentExportServiceImpl implements DocumentExportService {
+
+    private static final int WRITE_BUFFER = 64 * 1024;
+    private static final String[] CSV_HEADER = {
+            "id", "fileName", "contentType", "sizeBytes", "status", "documentType", "documentTypeSource",
+            "analyzed", "createdAt", "summary", "metadata", "extractedText"
+    };
+
+    private final DocumentRepository repo;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${export.fetch-size:500}")
+    private int fetchSize;
+
+    // rows per explicit flush, so slow clients see progress and the servlet buffer never grows
+    @Value("${export.flush-every:500}")
+    private int flushEvery;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(DocumentStatus status, String documentType, Instant from, Instant to,
+                       ExportFormat format, boolean includeText, OutputStream out) throws IOException {
+        String type = documentType == null || documentType.isBlank() ? null : documentType.trim();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER);
+        long rows = 0;
+        try (Stream<DocumentExportRow> stream = repo.streamForExport(status, type, from, to, includeText, fetchSize)) {
+            Iterator<DocumentExportRow> it = stream.iterator();
+            if (format == ExportFormat.CSV) writeCsvRecord(writer, includeText ? CSV_HEADER.length : CSV_HEADER.length - 1, CSV_HEADER);
+            while (it.hasNext()) {
+                DocumentExportRow row = it.next();
+                if (format == ExportFormat.CSV) writeCsv(writer, row, includeText);
+                else writeNdjson(writer, row, includeText);
+                if (++rows % flushEvery == 0) writer.flush();
+            }
+        }
+        writer.flush();
+        log.info("Exported {} documents as {}", rows, format);
+    }
+
+    private void writeNdjson(Writer writer, DocumentExportRow row, boolean includeText) throws IOException {
+        // a fresh generator per row, not closing the target: each line is a complete JSON document
+        JsonGenerator g = objectMapper.getFactory().createGenerator(writer);
+        g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        g.writeStartObject();
+        g.writeStringField("id", row.getId().toString());
+        g.writeStringField("fileName", row.getFileName());
+        g.writeStringField("contentType", row.getContentType());
+        if (row.getSizeBytes() == null) g.writeNullField("sizeBytes");
+        else g.writeNumberField("sizeBytes", row.getSizeBytes());
+        g.writeStringField("status", row.getStatus() == null ? null : row.getStatus().name());
+        g.writeStringField("documentType", row.getDocumentType());
+        g.writeStringField("documentTypeSource", row.getDocumentTypeSource());
+        g.writeBooleanField("analyzed", row.isAnalyzed());
+        g.writeStringField("createdAt", row.getCreatedAt() == null ? null : row.getCreatedAt().toString());
+        g.writeStringField("summary", row.getSummary());
+        g.writeFieldName("metadata");
+        JsonNode metadata = parseMetadata(row.getMetadataJson());
+        if (metadata != null) g.writeTree(metadata);
+        else g.writeString(row.getMetadataJson());
+        if (includeText) g.writeStringField("extractedText", row.getExtractedText());
+        g.writeEndObject();
+        g.close();
+        writer.write('\n');
+    }
+
+    private JsonNode parseMetadata(String json) {
+        if (json == null || json.isBlank()) return null;
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            return null; // not JSON; exported verbatim as a string
+        }
+    }
+
+    private void writeCsv(Writer writer, DocumentExportRow row, boolean includeText) throws IOException {
+        String[] fields = {
+                row.getId().toString(),
+                row.getFileName(),
+                row.getContentType(),
+                row.getSizeBytes() == null ? null : row.getSizeBytes().toString(),
+                row.getStatus() == null ? null : row.getStatus().name(),
+                row.getDocumentType(),
+                row.getDocumentTypeSource(),
+                String.valueOf(row.isAnalyzed()),
+                row.getCreatedAt() == null ? null : row.getCreatedAt().toString(),
+                row.getSummary(),
+                row.getMetadataJson(),
+                row.getExtractedText()
+        };
+        writeCsvRecord(writer, includeText ? fields.length : fields.length - 1, fields);
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break; double embedded quotes
+    static void writeCsvRecord(Writer writer, int count, String[] fields) throws IOException {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) writer.write(',');
+            String f = fields[i];
+            if (f == null || f.isEmpty()) continue;
+            // file names, summaries and extracted text are user-controlled; a leading quote keeps
+            // spreadsheets from evaluating them as formulas
+            if (startsFormula(f)) f = "'" + f;
+            if (needsQuoting(f)) {
+                writer.write('"');
+                writer.write(f.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(f);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static boolean startsFormula(String f) {
+        char c = f.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    private static boolean needsQuoting(String f) {
+        for (int i = 0; i < f.length(); i++) {
+            char c = f.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
@@ -1,13 +1,23 @@
 package com.hng.docxtractor.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hng.docxtractor.cache.DocumentResponseCache;
+import com.hng.docxtractor.config.AsyncConfig;
 import com.hng.docxtractor.dto.*;
 import com.hng.docxtractor.entity.Document;
 import com.hng.docxtractor.enums.DocumentStatus;
 import com.hng.docxtractor.exception.ApiException;
+import com.hng.docxtractor.ocr.OcrTier;
 import com.hng.docxtractor.repo.DocumentRepository;
+import com.hng.docxtractor.search.SearchIndexService;
 import com.hng.docxtractor.service.*;
+import com.hng.docxtractor.util.KeysetCursor;
+import com.hng.docxtractor.util.PathMultipartFile;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FilenameUtils;
 import org.springframework.beans.factory.annotation.*;
 import org.springframework.scheduling.annotation.Async;
@@ -15,50 +25,98 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class DocumentServiceImpl implements com.hng.docxtractor.service.DocumentService {
 
     private final StorageService storageService;
-    private final TextExtractionService textExtractionService;
+    private final ExtractionScheduler extractionScheduler;
     private final LlmService llmService;
+    private final EntityExtractionService entityExtractionService;
+    private final SearchIndexService searchIndexService;
+    private final AnalysisLeaseService analysisLeaseService;
     private final DocumentRepository docRepo;
+    private final DocumentResponseCache responseCache;
+    private final WebhookService webhookService;
+    private final DocumentClassifier documentClassifier;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private static final int MAX_LIST_LIMIT = 200;
+
+    private static final Set<DocumentStatus> COMPLETABLE =
+            EnumSet.of(DocumentStatus.AWAITING_UPLOAD, DocumentStatus.EXTRACTION_FAILED);
+
+    private static final Set<String> ALLOWED_MIME = Set.of(
+            "application/pdf",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/msword",
+            "application/vnd.openxmlformats-officedocument.presentationml.presentation",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "application/rtf",
+            "text/rtf",
+            "text/html",
+            "message/rfc822",
+            "image/png",
+            "image/jpeg",
+            "image/tiff",
+            "image/bmp",
+            "image/gif"
+    );
+    private static final Set<String> ALLOWED_EXT = Set.of(
+            "pdf", "docx", "doc", "pptx", "xlsx", "rtf", "html", "htm", "eml",
+            "png", "jpg", "jpeg", "tif", "tiff", "bmp", "gif");
+
     @Value("${app.upload.max-bytes}")
     private long maxBytes;
 
+    // direct uploads don't pass through the app, so they get their own (much larger) limit
+    @Value("${app.upload.direct.max-bytes:2147483648}")
+    private long directMaxBytes;
+
     @Value("${storage.bucket}")
     private String storageBucket;
 
+    @Value("${storage.presign.expiry:PT15M}")
+    private Duration presignExpiry;
+
+    // an extraction still EXTRACTING after this long is given up on by the reaper (crashed or stalled worker)
+    @Value("${app.upload.direct.extraction-timeout:PT30M}")
+    private Duration extractionTimeout;
+
+    @Value("${extraction.scratch-dir:${java.io.tmpdir}}")
+    private String scratchDir;
+
+    // "llm" sends everything to the model; "local-first" finds emails/phones/dates/amounts locally
+    // and only asks the model for documentType, summary and names
+    @Value("${llm.analysis.mode:llm}")
+    private String analysisMode;
+
+    // below this probability the classifier's guess is ignored and the LLM decides
+    @Value("${classifier.min-confidence:0.85}")
+    private double classifierMinConfidence;
+
+    // deliberately not @Transactional: storage and the extraction queue can take minutes, and a
+    // transaction here would pin a pooled connection for all of it. The row is written by save()'s
+    // own short transaction once the text is ready.
     @Override
-    @Transactional
-    public DocumentUploadResponse uploadDocument(MultipartFile file) {
+    public DocumentUploadResponse uploadDocument(MultipartFile file, OcrTier ocrTier, String clientId, String callbackUrl) {
         try {
             if (file == null || file.isEmpty())
                 throw new ApiException("No file provided");
 
             // Validate MIME type / extension
             String contentType = file.getContentType();
-            String extension = FilenameUtils.getExtension(
-                    file.getOriginalFilename() == null ? "" : file.getOriginalFilename()
-            ).toLowerCase();
-
-            Set<String> allowedMime = Set.of(
-                    "application/pdf",
-                    "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
-                    "application/msword"
-            );
-
-            Set<String> allowedExt = Set.of("pdf", "docx", "doc");
-
-            if (!allowedMime.contains(contentType) && !allowedExt.contains(extension))
-                throw new ApiException("Unsupported file type. Only PDF/DOC/DOCX allowed.");
+            String extension = validateFileType(file.getOriginalFilename(), contentType);
+            String callback = webhookService.validateCallbackUrl(callbackUrl);
 
             if (file.getSize() > maxBytes)
                 throw new ApiException("File exceeds max size of " + maxBytes + " bytes");
@@ -74,8 +132,8 @@ public class DocumentServiceImpl implements com.hng.docxtractor.service.Document
             // Upload actual file
             String storagePath = storageService.upload(storageBucket, storedName, file);
 
-            // Extract text
-            TextExtractionService.TextExtractionResult extraction = textExtractionService.extractText(file);
+            // Extract text (queued by estimated cost, fair across clients)
+            TextExtractionService.TextExtractionResult extraction = extractionScheduler.extract(file, ocrTier, clientId);
 
             // Persist
             Document doc = Document.builder()
@@ -89,11 +147,14 @@ public class DocumentServiceImpl implements com.hng.docxtractor.service.Document
                     .imageCount(extraction.imageCount)
                     .analyzed(false)
                     .status(DocumentStatus.PENDING)       // <-- ADD THIS
+                    .clientId(clientId)
+                    .callbackUrl(callback)
                     //.summary(null)                        // <-- optional, but safe
                     .build();
 
 
             docRepo.save(doc);
+            searchIndexService.index(doc);
 
             return DocumentUploadResponse.builder()
                     .id(doc.getId())                      // UUID
@@ -102,6 +163,7 @@ public class DocumentServiceImpl implements com.hng.docxtractor.service.Document
                     .sizeBytes(doc.getSizeBytes())
                     .containsImages(doc.isContainsImages())
                     .imageCount(doc.getImageCount())
+                    .callbackSecret(callback == null ? null : webhookService.callbackSecret(id))
                     .message("Uploaded and text extracted; call /documents/{id}/analyze to run LLM")
                     .build();
 
@@ -114,57 +176,90 @@ public class DocumentServiceImpl implements com.hng.docxtractor.service.Document
 
 
     @Override
-    @Transactional
-    public DocumentUploadResponse analyzeDocument(UUID id) {
-        Document doc = docRepo.findById(id)
-                .orElseThrow(() -> new ApiException("Document not found: " + id));
+    public DirectUploadResponse createDirectUpload(DirectUploadRequest request, String clientId) {
+        try {
+            if (request == null || request.getFileName() == null || request.getFileName().isBlank())
+                throw new ApiException("fileName is required");
 
-        // --- Helper inline check ---
-        boolean invalidAnalysis = doc.getSummary() == null || doc.getSummary().trim().isEmpty();
-
-        switch (doc.getStatus()) {
-
-            case PROCESSING:
-                return DocumentUploadResponse.builder()
-                        .id(doc.getId())
-                        .fileName(doc.getOriginalFileName())
-                        .message("Your document is still being analyzed. Please be patient.")
-                        .build();
-
-            case COMPLETED:
-                // If summary/metadata missing → treat as failed
-                if (invalidAnalysis) {
-                    doc.setStatus(DocumentStatus.FAILED);
-                    docRepo.save(doc);
-                    return DocumentUploadResponse.builder()
-                            .id(doc.getId())
-                            .fileName(doc.getOriginalFileName())
-                            .message("Previous analysis failed. Please retry.")
-                            .build();
-                }
+            String extension = validateFileType(request.getFileName(), request.getContentType());
+            if (request.getSizeBytes() != null && request.getSizeBytes() > directMaxBytes)
+                throw new ApiException("File exceeds max size of " + directMaxBytes + " bytes");
+            OcrTier tier = OcrTier.parse(request.getOcrTier());
+            String callback = webhookService.validateCallbackUrl(request.getCallbackUrl());
 
-                return DocumentUploadResponse.builder()
-                        .id(doc.getId())
-                        .fileName(doc.getOriginalFileName())
-                        .contentType(doc.getContentType())
-                        .sizeBytes(doc.getSizeBytes())
-                        .message("Analysis already completed.")
-                        .build();
-
-            case FAILED:
-            case PENDING:
-                runAnalysisAsync(doc); // starts async job
-                return DocumentUploadResponse.builder()
-                        .id(doc.getId())
-                        .fileName(doc.getOriginalFileName())
-                        .message("Analysis started. Check again later.")
-                        .build();
-
-            default:
-                throw new ApiException("Unknown status");
+            UUID id = UUID.randomUUID();
+            String storedName = id + "." + extension;
+            String uploadUrl = storageService.presignedPutUrl(storageBucket, storedName, presignExpiry);
+
+            Document doc = Document.builder()
+                    .id(id)
+                    .originalFileName(request.getFileName())
+                    .storagePath(storageBucket + "/" + storedName)
+                    .contentType(request.getContentType())
+                    .sizeBytes(request.getSizeBytes())
+                    .analyzed(false)
+                    .status(DocumentStatus.AWAITING_UPLOAD)
+                    .clientId(clientId)
+                    .ocrTier(tier == null ? null : tier.name())
+                    .callbackUrl(callback)
+                    .build();
+            docRepo.save(doc);
+
+            return DirectUploadResponse.builder()
+                    .id(id)
+                    .uploadUrl(uploadUrl)
+                    .method("PUT")
+                    .expiresAt(Instant.now().plus(presignExpiry))
+                    .completeUrl("/documents/" + id + "/complete-upload")
+                    .callbackSecret(callback == null ? null : webhookService.callbackSecret(id))
+                    .build();
+
+        } catch (ApiException ae) {
+            throw ae;
+        } catch (Exception e) {
+            throw new ApiException("Could not create upload: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public Optional<Document> completeDirectUpload(UUID id) {
+        Document doc = docRepo.findById(id)
+                .orElseThrow(() -> new ApiException("Document not found: " + id));
+        // EXTRACTION_FAILED may be retried as long as the object is still there (e.g. the extracting replica crashed)
+        if (!COMPLETABLE.contains(doc.getStatus())) return Optional.empty();
+
+        long size;
+        try {
+            size = storageService.size(doc.getStoragePath());
+        } catch (Exception e) {
+            throw new ApiException("Could not check uploaded object: " + e.getMessage(), e);
+        }
+        if (size < 0)
+            throw new ApiException(doc.getStatus() == DocumentStatus.AWAITING_UPLOAD
+                    ? "File has not been uploaded yet"
+                    : "Uploaded file is no longer available; create a new upload");
+        if (size > directMaxBytes) {
+            try {
+                storageService.delete(doc.getStoragePath());
+            } catch (Exception e) {
+                log.warn("Could not delete oversized upload {}: {}", doc.getStoragePath(), e.getMessage());
+            }
+            doc.setStatus(DocumentStatus.EXTRACTION_FAILED);
+            docRepo.save(doc);
+            searchIndexService.index(doc);
+            throw new ApiException("File exceeds max size of " + directMaxBytes + " bytes");
+        }
+
+        // a repeated or concurrent completion call loses here and doesn't start a second extraction
+        Instant now = Instant.now();
+        String run = UUID.randomUUID().toString();
+        if (docRepo.startExtraction(id, COMPLETABLE, DocumentStatus.EXTRACTING, run, now.plus(extractionTimeout), now) == 0)
+            return Optional.empty();
+
+        Document claimed = docRepo.findById(id).orElseThrow();
+        claimed.setSizeBytes(size);
+        return Optional.of(docRepo.save(claimed));
+    }
 
     @Override
     public DocumentDetailsDto getDocument(UUID id) {
@@ -181,38 +276,189 @@ public class DocumentServiceImpl implements com.hng.docxtractor.service.Document
                 .containsImages(d.isContainsImages())
                 .imageCount(d.getImageCount())
                 .analyzed(d.isAnalyzed())
+                .status(d.getStatus())
                 .documentType(d.getDocumentType())
                 .summary(d.getSummary())
                 .metadataJson(d.getMetadataJson())
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentPageResponse listDocuments(DocumentStatus status, Instant since, String cursor, boolean ascending, int limit) {
+        int pageSize = Math.min(Math.max(1, limit), MAX_LIST_LIMIT);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        // fetch one extra row to know whether there is a next page without a count query
+        List<DocumentSummaryDto> rows = docRepo.findPage(status, since, after, ascending, pageSize + 1);
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            DocumentSummaryDto last = rows.get(pageSize - 1);
+            next = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return DocumentPageResponse.builder()
+                .items(rows)
+                .nextCursor(next)
+                .build();
+    }
+
+    @Override
+    public boolean reopenForSummary(UUID id) {
+        Document doc = docRepo.findById(id)
+                .orElseThrow(() -> new ApiException("Document not found: " + id));
+        boolean noSummary = doc.getSummary() == null || doc.getSummary().isBlank();
+        if (!noSummary || !DocumentClassifier.SOURCE_CLASSIFIER.equals(doc.getDocumentTypeSource())) return false;
+        if (docRepo.transition(id, DocumentStatus.COMPLETED, DocumentStatus.PENDING, Instant.now()) == 0) return false;
+        responseCache.invalidate(id);
+        searchIndexService.reindex(List.of(id));
+        return true;
+    }
+
+    /**
+     * Expects {@code doc} to have been claimed through {@link AnalysisLeaseService#claim(UUID)}.
+     */
     @Async
-    public void runAnalysisAsync(Document doc) {
+    public void runAnalysisAsync(Document doc, boolean summaryRequested) {
         try {
-            doc.setStatus(DocumentStatus.PROCESSING);
-            docRepo.save(doc);
-
-            // Call your existing LLM service
-            LlmService.LlmResult res = llmService.analyze(
-                    doc.getOriginalFileName(),
-                    doc.getContentType(),
-                    doc.getExtractedText(),
-                    doc.isContainsImages(),
-                    doc.getImageCount()
-            );
-
-            doc.setDocumentType(res.documentType);
-            doc.setSummary(res.summary);
-            doc.setMetadataJson(res.entitiesJson);
+            boolean localFirst = "local-first".equalsIgnoreCase(analysisMode);
+            DocumentClassifier.Prediction guess = summaryRequested ? null
+                    : documentClassifier.classify(doc.getOriginalFileName(), doc.getExtractedText())
+                    .filter(p -> p.confidence() >= classifierMinConfidence)
+                    .orElse(null);
+            if (guess != null) {
+                // routine document: type from the local model, entities from the local extractor, no LLM call
+                log.debug("Document {} classified locally as {} ({})", doc.getId(), guess.documentType(), guess.confidence());
+                doc.setDocumentType(guess.documentType());
+                doc.setDocumentTypeSource(DocumentClassifier.SOURCE_CLASSIFIER);
+                doc.setSummary(null);
+                doc.setMetadataJson(mergeEntities(null, entityExtractionService.extract(doc.getExtractedText())));
+            } else {
+                LlmService.LlmResult res = localFirst
+                        ? llmService.analyzeFuzzy(
+                                doc.getOriginalFileName(),
+                                doc.getContentType(),
+                                doc.getExtractedText(),
+                                doc.isContainsImages(),
+                                doc.getImageCount())
+                        : llmService.analyze(
+                                doc.getOriginalFileName(),
+                                doc.getContentType(),
+                                doc.getExtractedText(),
+                                doc.isContainsImages(),
+                                doc.getImageCount());
+
+                doc.setDocumentType(res.documentType);
+                doc.setDocumentTypeSource(DocumentClassifier.SOURCE_LLM);
+                doc.setSummary(res.summary);
+                // in "llm" mode the model's entities are stored as returned
+                doc.setMetadataJson(localFirst
+                        ? mergeEntities(res.entitiesJson, entityExtractionService.extract(doc.getExtractedText()))
+                        : res.entitiesJson);
+            }
             doc.setAnalyzed(true);
             doc.setStatus(DocumentStatus.COMPLETED);
 
         } catch (Exception e) {
+            log.warn("Analysis of document {} failed: {}", doc.getId(), e.getMessage());
             doc.setStatus(DocumentStatus.FAILED);
         }
 
-        docRepo.save(doc);
+        if (analysisLeaseService.complete(doc)) {
+            searchIndexService.index(doc);
+        }
+    }
+
+    /**
+     * Pull a direct upload back from storage and extract it. Expects {@code doc} to have been moved to
+     * EXTRACTING by {@link #completeDirectUpload(UUID)}; ends in PENDING (ready to analyze) or EXTRACTION_FAILED.
+     */
+    @Async(AsyncConfig.EXTRACTION_EXECUTOR)
+    public void runExtractionAsync(Document doc) {
+        DocumentStatus outcome;
+        TextExtractionService.TextExtractionResult extraction = null;
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(Path.of(scratchDir), "direct-", "." + FilenameUtils.getExtension(doc.getStoragePath()));
+            try (InputStream is = storageService.open(doc.getStoragePath())) {
+                Files.copy(is, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            PathMultipartFile file = new PathMultipartFile(tmp, doc.getOriginalFileName(), doc.getContentType());
+            extraction = extractionScheduler.extract(file, OcrTier.parse(doc.getOcrTier()), doc.getClientId());
+            outcome = DocumentStatus.PENDING;
+        } catch (Exception e) {
+            log.warn("Extraction of direct upload {} failed: {}", doc.getId(), e.getMessage());
+            outcome = DocumentStatus.EXTRACTION_FAILED;
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (Exception ignored) {
+                }
+            }
+        }
+        // the reaper may have given up on this run, and complete-upload may have started a new one since
+        int updated = docRepo.completeExtraction(doc.getId(), doc.getLeaseOwner(), DocumentStatus.EXTRACTING, outcome,
+                extraction == null ? null : extraction.text,
+                extraction != null && extraction.containsImages,
+                extraction == null ? 0 : extraction.imageCount,
+                Instant.now());
+        if (updated == 0) {
+            log.warn("Extraction of direct upload {} finished after it was given up on or restarted; discarding result",
+                    doc.getId());
+            return;
+        }
+        searchIndexService.reindex(List.of(doc.getId()));
+    }
+
+    @Override
+    public void abortExtraction(Document doc) {
+        docRepo.completeExtraction(doc.getId(), doc.getLeaseOwner(), DocumentStatus.EXTRACTING,
+                DocumentStatus.EXTRACTION_FAILED, null, false, 0, Instant.now());
+        searchIndexService.reindex(List.of(doc.getId()));
+    }
+
+    /**
+     * @return the file extension, if the name or content type is one we can process
+     */
+    private String validateFileType(String fileName, String contentType) {
+        String extension = FilenameUtils.getExtension(fileName == null ? "" : fileName).toLowerCase();
+        if (!ALLOWED_MIME.contains(contentType) && !ALLOWED_EXT.contains(extension))
+            throw new ApiException("Unsupported file type. Allowed: PDF, DOC, DOCX, PPTX, XLSX, RTF, HTML, EML and images (PNG, JPEG, TIFF, BMP, GIF).");
+        return extension;
+    }
+
+    /**
+     * Union the locally extracted entities into the LLM's entities JSON (LLM values first).
+     */
+    private String mergeEntities(String llmEntitiesJson, EntityExtractionService.ExtractedEntities local) {
+        ObjectNode merged;
+        try {
+            JsonNode parsed = llmEntitiesJson == null ? null : objectMapper.readTree(llmEntitiesJson);
+            merged = parsed instanceof ObjectNode on ? on : objectMapper.createObjectNode();
+        } catch (Exception e) {
+            merged = objectMapper.createObjectNode();
+        }
+        if (!merged.has("names")) merged.putArray("names");
+        unionInto(merged, "dates", local.dates);
+        unionInto(merged, "amounts", local.amounts);
+        unionInto(merged, "emails", local.emails);
+        unionInto(merged, "phones", local.phones);
+        try {
+            return objectMapper.writeValueAsString(merged);
+        } catch (Exception e) {
+            return llmEntitiesJson;
+        }
+    }
+
+    private void unionInto(ObjectNode target, String field, List<String> values) {
+        Set<String> all = new LinkedHashSet<>();
+        JsonNode existing = target.path(field);
+        if (existing.isArray()) existing.forEach(n -> all.add(n.asText()));
+        all.addAll(values);
+        ArrayNode arr = target.putArray(field);
+        all.forEach(arr::add);
     }
 
 }
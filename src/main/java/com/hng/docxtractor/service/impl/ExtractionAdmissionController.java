@@ -0,0 +1,70 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.exception.ServiceBusyException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global cap on how many bytes of documents are being extracted at once, so heap use stays
+ * predictable no matter how many large uploads arrive together. Weighted by document size;
+ * one permit is 1 KiB.
+ */
+@Component
+@Slf4j
+public class ExtractionAdmissionController {
+
+    private static final long PERMIT_BYTES = 1024;
+
+    @Value("${extraction.max-inflight-bytes:268435456}")
+    private long maxInflightBytes;
+
+    @Value("${extraction.admission-timeout-ms:30000}")
+    private long admissionTimeoutMs;
+
+    private Semaphore permits;
+    private int totalPermits;
+
+    @PostConstruct
+    public void init() {
+        totalPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxInflightBytes / PERMIT_BYTES));
+        permits = new Semaphore(totalPermits, true);
+    }
+
+    /**
+     * Block until {@code bytes} of budget is free (or the admission timeout passes).
+     * A document larger than the whole budget waits for the budget to drain and then runs alone.
+     */
+    public Admission admit(long bytes) throws InterruptedException {
+        int needed = (int) Math.min(totalPermits, Math.max(1, (bytes + PERMIT_BYTES - 1) / PERMIT_BYTES));
+        if (!permits.tryAcquire(needed, admissionTimeoutMs, TimeUnit.MILLISECONDS)) {
+            log.warn("Extraction admission timed out for {} bytes ({} KiB free)", bytes, permits.availablePermits());
+            throw new ServiceBusyException("Too many documents are being processed right now. Please retry shortly.");
+        }
+        return new Admission(needed);
+    }
+
+    public long availableBytes() {
+        return permits.availablePermits() * PERMIT_BYTES;
+    }
+
+    public final class Admission implements AutoCloseable {
+        private final int held;
+        private boolean released;
+
+        private Admission(int held) {
+            this.held = held;
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            permits.release(held);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.hng.docxtractor.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Cheap up-front cost estimate of an extraction job, in abstract units (one text page = 1).
+ * PDFs are never parsed here (that is the extractor's job, possibly in an isolated worker): the
+ * bytes are scanned once for the page tree's {@code /Count} and image XObjects, and pages that are
+ * mostly image bytes are charged as OCR.
+ */
+@Component
+@Slf4j
+public class ExtractionCostEstimator {
+
+    private static final long MB = 1024 * 1024;
+    // used when the page count sits inside a compressed object stream and can't be read from the bytes
+    private static final long ASSUMED_BYTES_PER_PAGE = 100 * 1024;
+    // text pages are a few KB; scanned pages carry a page-sized image
+    private static final long SCANNED_BYTES_PER_PAGE = 60 * 1024;
+    private static final int MAX_PAGES = 1_000_000;
+
+    // relative cost of OCR-ing one page compared to stripping one page of text
+    @Value("${extraction.scheduler.ocr-page-cost:15}")
+    private int ocrPageCost;
+
+    /**
+     * @param pages page count, or 0 when it could not be read (the document is then not sliced)
+     */
+    public record Estimate(long cost, boolean pdf, int pages, boolean textLayer) {
+        /**
+         * Cost of a single page of this document.
+         */
+        public long pageCost() {
+            return pages > 0 ? Math.max(1, cost / pages) : cost;
+        }
+    }
+
+    public Estimate estimate(MultipartFile file) {
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+        String type = file.getContentType() == null ? "" : file.getContentType();
+        long size = file.getSize();
+        long sizeCost = size / MB;
+
+        if (type.startsWith("image/") || name.matches(".*\\.(png|jpe?g|tiff?|bmp|gif)$")) {
+            return new Estimate(ocrPageCost + sizeCost, false, 1, false);
+        }
+        if (!"application/pdf".equals(type) && !name.endsWith(".pdf")) {
+            return new Estimate(1 + sizeCost, false, 0, true);
+        }
+
+        PdfScan scan;
+        try (InputStream is = file.getInputStream()) {
+            scan = PdfScan.of(is);
+        } catch (IOException e) {
+            log.debug("Cost estimate failed for {}: {}", name, e.getMessage());
+            return new Estimate(1 + sizeCost, true, 0, false);
+        }
+        int pages = scan.pageCount();
+        long pagesForCost = pages > 0 ? pages : Math.max(1, size / ASSUMED_BYTES_PER_PAGE);
+        boolean scanned = scan.images() >= pagesForCost || size / pagesForCost >= SCANNED_BYTES_PER_PAGE;
+        long perPage = scanned ? ocrPageCost : 1;
+        return new Estimate(pagesForCost * perPage + sizeCost, true, pages, !scanned);
+    }
+
+    /**
+     * Single forward pass over raw PDF bytes, tokenizing only names: the largest integer after a
+     * {@code /Count} (the page tree root) and the number of {@code /Image} names (image XObjects).
+     * Objects inside compressed object streams are invisible to it.
+     */
+    record PdfScan(int pageCount, int images) {
+
+        private static final int MAX_NAME = 16;
+
+        static PdfScan of(InputStream in) throws IOException {
+            byte[] buf = new byte[64 * 1024];
+            char[] nameBuf = new char[MAX_NAME];
+            int nameLen = -1; // -1 = not inside a name
+            boolean afterCount = false;
+            long number = -1;
+            int maxCount = 0, images = 0;
+
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    int c = buf[i] & 0xff;
+                    if (nameLen >= 0) {
+                        if (isRegular(c)) {
+                            if (nameLen < MAX_NAME) nameBuf[nameLen] = (char) c;
+                            nameLen++;
+                            continue;
+                        }
+                        String name = nameLen <= MAX_NAME ? new String(nameBuf, 0, nameLen) : "";
+                        nameLen = -1;
+                        if (name.equals("Count")) {
+                            afterCount = true;
+                            number = -1;
+                        } else if (name.equals("Image")) {
+                            images++;
+                        }
+                    }
+                    if (afterCount) {
+                        if (c >= '0' && c <= '9') {
+                            number = Math.min(MAX_PAGES, (number < 0 ? 0 : number * 10) + (c - '0'));
+                            continue;
+                        }
+                        if (number >= 0) {
+                            maxCount = (int) Math.max(maxCount, number);
+                            afterCount = false;
+                        } else if (!isWhitespace(c)) {
+                            afterCount = false;
+                        }
+                    }
+                    if (c == '/') nameLen = 0;
+                }
+            }
+            return new PdfScan(maxCount, images);
+        }
+
+        private static boolean isWhitespace(int c) {
+            return c == 0 || c == 9 || c == 10 || c == 12 || c == 13 || c == 32;
+        }
+
+        private static boolean isRegular(int c) {
+            return !isWhitespace(c) && "()<>[]{}/%".indexOf(c) < 0;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.exception.ServiceBusyException;
+import com.hng.docxtractor.ocr.OcrTier;
+import com.hng.docxtractor.service.ExtractionScheduler;
+import com.hng.docxtractor.service.TextExtractionService;
+import com.hng.docxtractor.service.TextExtractionService.PdfSplit;
+import com.hng.docxtractor.service.TextExtractionService.TextExtractionResult;
+import com.hng.docxtractor.util.PathMultipartFile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Two lanes served by a fixed set of runner threads:
+ * <ul>
+ *     <li>fast: jobs whose estimated cost is at most {@code fast-lane-max-cost}, run whole;</li>
+ *     <li>bulk: everything else; PDFs are cut into slices of about {@code slice-cost} units.</li>
+ * </ul>
+ * A large PDF is parsed once, by a single job that extracts its text layer and decides for the whole
+ * document whether it needs OCR. Only then is it split, and each OCR slice opens just its own pages.
+ * The fast lane gets {@code fast-lane-weight} turns for every bulk turn (when both have work),
+ * and inside a lane clients take turns job by job, so slices of different clients' large
+ * documents interleave instead of running back to back.
+ * <p>
+ * Memory admission ({@link ExtractionAdmissionController}) is taken once per document on the
+ * caller's thread before anything is queued, and held until all of its slices finish. Runner
+ * threads never block on it, and a document is never failed half-way because one slice timed out
+ * waiting for budget its own siblings were holding.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExtractionSchedulerImpl implements ExtractionScheduler {
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final TextExtractionService textExtractionService;
+    private final ExtractionCostEstimator costEstimator;
+    private final ExtractionAdmissionController admissionController;
+    private final MeterRegistry meterRegistry;
+
+    // 0 = one runner per core
+    @Value("${extraction.scheduler.concurrency:0}")
+    private int configuredConcurrency;
+
+    @Value("${extraction.scheduler.fast-lane-max-cost:30}")
+    private long fastLaneMaxCost;
+
+    @Value("${extraction.scheduler.fast-lane-weight:3}")
+    private int fastLaneWeight;
+
+    @Value("${extraction.scheduler.slice-cost:120}")
+    private long sliceCost;
+
+    @Value("${extraction.scheduler.max-queued:1000}")
+    private int maxQueued;
+
+    @Value("${extraction.scratch-dir:${java.io.tmpdir}}")
+    private String scratchDir;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final List<Thread> runners = new ArrayList<>();
+    private Lane fast;
+    private Lane bulk;
+    private int fastCredits;
+    private int queued;
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void init() {
+        fast = new Lane("fast");
+        bulk = new Lane("bulk");
+        fastCredits = fastLaneWeight;
+        int concurrency = configuredConcurrency > 0 ? configuredConcurrency : Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < concurrency; i++) {
+            Thread t = new Thread(this::runLoop, "extraction-runner-" + i);
+            t.setDaemon(true);
+            t.start();
+            runners.add(t);
+        }
+        log.info("Extraction scheduler: {} runners, fast lane <= {} cost units, slices of ~{} units",
+                concurrency, fastLaneMaxCost, sliceCost);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        runners.forEach(Thread::interrupt);
+    }
+
+    @Override
+    public TextExtractionResult extract(MultipartFile file, OcrTier ocrTier, String clientId) throws Exception {
+        try (ExtractionAdmissionController.Admission ignored = admissionController.admit(file.getSize())) {
+            return schedule(file, ocrTier, clientId);
+        }
+    }
+
+    private TextExtractionResult schedule(MultipartFile file, OcrTier ocrTier, String clientId) throws Exception {
+        String tenant = clientId == null || clientId.isBlank() ? ANONYMOUS : clientId.trim();
+        ExtractionCostEstimator.Estimate est = costEstimator.estimate(file);
+        int pagesPerSlice = (int) Math.max(1, sliceCost / est.pageCost());
+
+        if (est.cost() <= fastLaneMaxCost) {
+            return this.<TextExtractionResult>await(submit(fast, tenant,
+                    List.of(() -> textExtractionService.extractText(file, ocrTier)))).get(0);
+        }
+        if (!est.pdf() || est.pages() <= pagesPerSlice) {
+            return this.<TextExtractionResult>await(submit(bulk, tenant,
+                    List.of(() -> textExtractionService.extractText(file, ocrTier)))).get(0);
+        }
+
+        Path sliceDir = Files.createTempDirectory(Path.of(scratchDir), "slices-");
+        try {
+            // one parse of the whole document: its text layer, and split files only if it needs OCR
+            PdfSplit split = this.<PdfSplit>await(submit(bulk, tenant,
+                    List.of(() -> textExtractionService.splitPdf(file, pagesPerSlice, sliceDir)))).get(0);
+            if (split.ocrSlices().isEmpty()) return split.textLayer();
+
+            List<Callable<TextExtractionResult>> slices = new ArrayList<>();
+            for (Path slice : split.ocrSlices()) {
+                MultipartFile part = new PathMultipartFile(slice, file.getOriginalFilename(), "application/pdf");
+                slices.add(() -> textExtractionService.ocrPdf(part, ocrTier));
+            }
+            log.debug("OCR-ing {} ({} pages, cost {}) as {} slices for {}",
+                    file.getOriginalFilename(), est.pages(), est.cost(), slices.size(), tenant);
+            TextExtractionResult ocr = merge(this.<TextExtractionResult>await(submit(bulk, tenant, slices)));
+            TextExtractionResult layer = split.textLayer();
+            return new TextExtractionResult((layer.text + "\n" + ocr.text).trim(), layer.containsImages, layer.imageCount);
+        } finally {
+            FileSystemUtils.deleteRecursively(sliceDir);
+        }
+    }
+
+    private List<Job> submit(Lane lane, String tenant, List<? extends Callable<?>> work) {
+        List<Job> jobs = new ArrayList<>(work.size());
+        lock.lock();
+        try {
+            // a sliced document adds all of its slices at once; one larger than the whole limit may still run alone
+            if (queued > 0 && queued + work.size() > maxQueued) {
+                throw new ServiceBusyException("Extraction queue is full. Please retry shortly.");
+            }
+            for (Callable<?> w : work) {
+                Job job = new Job(lane, w);
+                lane.add(tenant, job);
+                jobs.add(job);
+            }
+            queued += jobs.size();
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return jobs;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> await(List<Job> jobs) throws Exception {
+        List<T> results = new ArrayList<>(jobs.size());
+        try {
+            for (Job job : jobs) results.add((T) job.result.get());
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        } finally {
+            // on failure/interrupt, drop slices that haven't started yet
+            for (Job job : jobs) job.result.cancel(false);
+        }
+    }
+
+    private TextExtractionResult merge(List<TextExtractionResult> parts) {
+        StringBuilder sb = new StringBuilder();
+        boolean images = false;
+        int imageCount = 0;
+        for (TextExtractionResult part : parts) {
+            if (part.text != null && !part.text.isBlank()) {
+                if (!sb.isEmpty()) sb.append('\n');
+                sb.append(part.text);
+            }
+            images |= part.containsImages;
+            imageCount += part.imageCount;
+        }
+        return new TextExtractionResult(sb.toString(), images, imageCount);
+    }
+
+    private void runLoop() {
+        while (running) {
+            Job job;
+            try {
+                job = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (job.result.isDone()) continue; // cancelled while queued
+            job.lane.waitTimer.record(System.nanoTime() - job.enqueuedNanos, TimeUnit.NANOSECONDS);
+            try {
+                job.result.complete(job.work.call());
+            } catch (Throwable t) {
+                job.result.completeExceptionally(t);
+            }
+        }
+    }
+
+    private Job take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (fast.size == 0 && bulk.size == 0) workAvailable.await();
+            Lane lane;
+            if (fast.size > 0 && (bulk.size == 0 || fastCredits > 0)) {
+                lane = fast;
+                fastCredits--;
+            } else {
+                lane = bulk;
+                fastCredits = fastLaneWeight;
+            }
+            queued--;
+            return lane.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Job {
+        private final Lane lane;
+        private final Callable<?> work;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final long enqueuedNanos = System.nanoTime();
+
+        private Job(Lane lane, Callable<?> work) {
+            this.lane = lane;
+            this.work = work;
+        }
+    }
+
+    /**
+     * Per-client FIFO queues visited round-robin. Guarded by the scheduler lock.
+     */
+    private final class Lane {
+        private final Map<String, ArrayDeque<Job>> byTenant = new HashMap<>();
+        private final ArrayDeque<String> rotation = new ArrayDeque<>();
+        private final Timer waitTimer;
+        private volatile int size;
+
+        private Lane(String name) {
+            waitTimer = Timer.builder("extraction.queue.wait")
+                    .description("Time extraction work waits before a runner picks it up")
+                    .tag("lane", name)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            Gauge.builder("extraction.queue.depth", this, l -> l.size)
+                    .description("Extraction jobs (or page slices) waiting")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+        }
+
+        private void add(String tenant, Job job) {
+            byTenant.computeIfAbsent(tenant, t -> {
+                rotation.addLast(t);
+                return new ArrayDeque<>();
+            }).addLast(job);
+            size++;
+        }
+
+        private Job poll() {
+            String tenant = rotation.pollFirst();
+            ArrayDeque<Job> q = byTenant.get(tenant);
+            Job job = q.pollFirst();
+            if (q.isEmpty()) byTenant.remove(tenant);
+            else rotation.addLast(tenant);
+            size--;
+            return job;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.repo.DocumentRepository;
+import com.hng.docxtractor.service.DocumentClassifier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Document-type classifier trained in the background from COMPLETED documents the LLM labelled
+ * (never from its own predictions). A model only goes live if it reaches
+ * {@code classifier.min-holdout-accuracy} on a held-out tenth of the data.
+ * <p>
+ * Types outside {@code classifier.labels}, and labels with too few examples, are trained as one
+ * {@link #OTHER} class. A document that looks most like it gets no prediction, so it goes to the LLM
+ * instead of being forced into the nearest known type. Without enough such examples, a model is
+ * only published once every configured label is covered.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HashedNgramDocumentClassifier implements DocumentClassifier {
+
+    private static final int EPOCHS = 8;
+    private static final int LOAD_CHUNK = 200;
+    private static final int MIN_EXAMPLES_PER_LABEL = 5;
+    // never a configured label: documents of any type the model was not trained to recognise
+    static final String OTHER = "(other)";
+
+    private final DocumentRepository docRepo;
+
+    @Value("${classifier.enabled:true}")
+    private boolean enabled;
+
+    @Value("${classifier.labels:invoice,cv,resume,report,letter,email,receipt,contract}")
+    private List<String> labels;
+
+    @Value("${classifier.hash-bits:18}")
+    private int hashBits;
+
+    @Value("${classifier.min-training-docs:50}")
+    private int minTrainingDocs;
+
+    @Value("${classifier.max-training-docs:20000}")
+    private int maxTrainingDocs;
+
+    @Value("${classifier.min-holdout-accuracy:0.9}")
+    private double minHoldoutAccuracy;
+
+    private volatile HashedNgramModel model;
+
+    @Override
+    public Optional<Prediction> classify(String fileName, String text) {
+        HashedNgramModel m = model;
+        if (m == null) return Optional.empty();
+        double[] p = m.probabilities(HashedNgramModel.features(fileName, text, m.bits()));
+        int best = 0;
+        for (int k = 1; k < p.length; k++) if (p[k] > p[best]) best = k;
+        if (m.labels[best].equals(OTHER)) return Optional.empty();
+        return Optional.of(new Prediction(m.labels[best], p[best]));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void trainOnStartup() {
+        retrain();
+    }
+
+    @Scheduled(fixedDelayString = "${classifier.retrain-interval-ms:21600000}",
+            initialDelayString = "${classifier.retrain-interval-ms:21600000}")
+    public synchronized void retrain() {
+        if (!enabled) return;
+        long started = System.currentTimeMillis();
+        try {
+            Set<String> wanted = new LinkedHashSet<>();
+            labels.forEach(l -> wanted.add(l.trim().toLowerCase(Locale.ROOT)));
+
+            List<UUID> ids = docRepo.findTrainingIds(DocumentStatus.COMPLETED, SOURCE_CLASSIFIER,
+                    PageRequest.of(0, maxTrainingDocs));
+            if (ids.size() < minTrainingDocs) {
+                log.info("Classifier not trained: {} labelled documents, need {}", ids.size(), minTrainingDocs);
+                return;
+            }
+
+            // featurize chunk by chunk so full texts are never all in memory at once
+            List<HashedNgramModel.Sparse> xs = new ArrayList<>(ids.size());
+            List<String> ys = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i += LOAD_CHUNK) {
+                for (DocumentRepository.TrainingRow row : docRepo.findTrainingRows(ids.subList(i, Math.min(ids.size(), i + LOAD_CHUNK)))) {
+                    xs.add(HashedNgramModel.features(row.getOriginalFileName(), row.getExtractedText(), hashBits));
+                    ys.add(row.getDocumentType().trim().toLowerCase(Locale.ROOT));
+                }
+            }
+
+            Map<String, Integer> perType = new TreeMap<>();
+            ys.forEach(y -> perType.merge(y, 1, Integer::sum));
+            Map<String, Integer> perLabel = new TreeMap<>();
+            for (int i = 0; i < ys.size(); i++) {
+                String y = ys.get(i);
+                if (!wanted.contains(y) || perType.get(y) < MIN_EXAMPLES_PER_LABEL) ys.set(i, OTHER);
+                perLabel.merge(ys.get(i), 1, Integer::sum);
+            }
+            boolean knowsOther = perLabel.getOrDefault(OTHER, 0) >= MIN_EXAMPLES_PER_LABEL;
+            if (!knowsOther) {
+                // a closed label set would give a confident wrong type to anything outside it
+                Set<String> missing = new TreeSet<>(wanted);
+                missing.removeAll(perLabel.keySet());
+                if (!missing.isEmpty()) {
+                    log.info("Classifier not trained: too few examples of {} and of other types to learn "
+                            + "to refuse them {}", missing, perType);
+                    return;
+                }
+            }
+            String[] modelLabels = perLabel.entrySet().stream()
+                    .filter(e -> e.getValue() >= MIN_EXAMPLES_PER_LABEL)
+                    .map(Map.Entry::getKey)
+                    .toArray(String[]::new);
+            if (modelLabels.length < 2) {
+                log.info("Classifier not trained: not enough examples per label {}", perType);
+                return;
+            }
+            Map<String, Integer> labelIndex = new HashMap<>();
+            for (int k = 0; k < modelLabels.length; k++) labelIndex.put(modelLabels[k], k);
+
+            List<HashedNgramModel.Sparse> train = new ArrayList<>(), holdout = new ArrayList<>();
+            List<Integer> trainY = new ArrayList<>(), holdoutY = new ArrayList<>();
+            for (int i = 0; i < xs.size(); i++) {
+                Integer y = labelIndex.get(ys.get(i));
+                if (y == null) continue;
+                if (i % 10 == 9) {
+                    holdout.add(xs.get(i));
+                    holdoutY.add(y);
+                } else {
+                    train.add(xs.get(i));
+                    trainY.add(y);
+                }
+            }
+
+            HashedNgramModel candidate = HashedNgramModel.train(train, toArray(trainY), modelLabels, hashBits, EPOCHS, 42);
+            double accuracy = candidate.accuracy(holdout, toArray(holdoutY));
+            if (accuracy < minHoldoutAccuracy) {
+                log.warn("Classifier rejected: holdout accuracy {} < {} ({} docs, labels {})",
+                        String.format("%.3f", accuracy), minHoldoutAccuracy, xs.size(), perType);
+                return;
+            }
+            model = candidate;
+            log.info("Classifier trained on {} docs in {} ms, holdout accuracy {} (labels {})",
+                    train.size(), System.currentTimeMillis() - started, String.format("%.3f", accuracy), perType);
+        } catch (Exception e) {
+            log.warn("Classifier training failed: {}", e.getMessage());
+        }
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,167 @@
+package com.hng.docxtractor.service.impl;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Multinomial logistic regression over hashed word unigrams/bigrams (plus file-name tokens).
+ * Immutable once trained, so a model can be swapped in while other threads classify.
+ */
+final class HashedNgramModel {
+
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    // the head of a document carries its type; this also keeps inference in the microsecond range
+    static final int MAX_TEXT_CHARS = 10_000;
+    private static final int MAX_TOKEN_LENGTH = 30;
+
+    final String[] labels;
+    private final int mask;
+    private final float[][] weights; // [label][hashed feature]
+    private final float[] bias;
+
+    private HashedNgramModel(String[] labels, int bits) {
+        this.labels = labels;
+        this.mask = (1 << bits) - 1;
+        this.weights = new float[labels.length][1 << bits];
+        this.bias = new float[labels.length];
+    }
+
+    record Sparse(int[] index, float[] value) {
+    }
+
+    /**
+     * L2-normalized, sign-hashed, log-scaled term counts. Digits are folded to 0 so dates and
+     * amounts generalize ("Invoice 2023-04" and "Invoice 2024-11" share features).
+     */
+    static Sparse features(String fileName, String text, int bits) {
+        int m = (1 << bits) - 1;
+        Map<Integer, Float> counts = new HashMap<>();
+        if (fileName != null) {
+            Matcher fm = TOKEN.matcher(fileName.toLowerCase(Locale.ROOT));
+            while (fm.find()) add(counts, "f:" + fold(fm.group()), m);
+        }
+        if (text != null) {
+            String head = text.length() > MAX_TEXT_CHARS ? text.substring(0, MAX_TEXT_CHARS) : text;
+            Matcher tm = TOKEN.matcher(head.toLowerCase(Locale.ROOT));
+            String prev = null;
+            while (tm.find()) {
+                if (tm.end() - tm.start() > MAX_TOKEN_LENGTH) {
+                    prev = null;
+                    continue;
+                }
+                String tok = fold(tm.group());
+                add(counts, tok, m);
+                if (prev != null) add(counts, prev + ' ' + tok, m);
+                prev = tok;
+            }
+        }
+
+        int[] index = new int[counts.size()];
+        float[] value = new float[counts.size()];
+        double norm = 0;
+        int n = 0;
+        for (Map.Entry<Integer, Float> e : counts.entrySet()) {
+            float c = e.getValue();
+            if (c == 0) continue; // hash collision cancelled out
+            float v = (float) (Math.signum(c) * (1 + Math.log(Math.abs(c))));
+            index[n] = e.getKey();
+            value[n] = v;
+            norm += v * v;
+            n++;
+        }
+        float inv = norm == 0 ? 0 : (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < n; i++) value[i] *= inv;
+        return new Sparse(Arrays.copyOf(index, n), Arrays.copyOf(value, n));
+    }
+
+    private static String fold(String token) {
+        StringBuilder sb = null;
+        for (int i = 0; i < token.length(); i++) {
+            char ch = token.charAt(i);
+            if (Character.isDigit(ch) && ch != '0') {
+                if (sb == null) sb = new StringBuilder(token);
+                sb.setCharAt(i, '0');
+            }
+        }
+        return sb == null ? token : sb.toString();
+    }
+
+    private static void add(Map<Integer, Float> counts, String feature, int mask) {
+        int h = mix(feature.hashCode());
+        counts.merge(h & mask, h < 0 ? -1f : 1f, Float::sum);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    int bits() {
+        return Integer.bitCount(mask);
+    }
+
+    double[] probabilities(Sparse x) {
+        double[] z = new double[labels.length];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < labels.length; k++) {
+            float[] w = weights[k];
+            double s = bias[k];
+            for (int j = 0; j < x.index().length; j++) s += w[x.index()[j]] * x.value()[j];
+            z[k] = s;
+            if (s > max) max = s;
+        }
+        double sum = 0;
+        for (int k = 0; k < z.length; k++) {
+            z[k] = Math.exp(z[k] - max);
+            sum += z[k];
+        }
+        for (int k = 0; k < z.length; k++) z[k] /= sum;
+        return z;
+    }
+
+    /**
+     * Plain SGD on softmax cross-entropy with a decaying learning rate.
+     *
+     * @param ys index into {@code labels} for each row of {@code xs}
+     */
+    static HashedNgramModel train(List<Sparse> xs, int[] ys, String[] labels, int bits, int epochs, long seed) {
+        HashedNgramModel model = new HashedNgramModel(labels, bits);
+        Integer[] order = new Integer[xs.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Random rnd = new Random(seed);
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            Collections.shuffle(Arrays.asList(order), rnd);
+            float lr = 0.5f / (1 + epoch);
+            for (int i : order) {
+                Sparse x = xs.get(i);
+                double[] p = model.probabilities(x);
+                for (int k = 0; k < labels.length; k++) {
+                    float g = (float) (p[k] - (ys[i] == k ? 1 : 0));
+                    if (g == 0) continue;
+                    float[] w = model.weights[k];
+                    for (int j = 0; j < x.index().length; j++) w[x.index()[j]] -= lr * g * x.value()[j];
+                    model.bias[k] -= lr * g;
+                }
+            }
+        }
+        return model;
+    }
+
+    double accuracy(List<Sparse> xs, int[] ys) {
+        if (xs.isEmpty()) return 0;
+        int correct = 0;
+        for (int i = 0; i < xs.size(); i++) {
+            double[] p = probabilities(xs.get(i));
+            int best = 0;
+            for (int k = 1; k < p.length; k++) if (p[k] > p[best]) best = k;
+            if (best == ys[i]) correct++;
+        }
+        return (double) correct / xs.size();
+    }
+}
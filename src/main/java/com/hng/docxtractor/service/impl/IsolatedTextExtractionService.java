@@ -0,0 +1,67 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.ocr.OcrTier;
+import com.hng.docxtractor.service.TextExtractionService;
+import com.hng.docxtractor.util.PathMultipartFile;
+import com.hng.docxtractor.worker.ExtractionWorkerPool;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Extraction mode {@code isolated}: the document is spooled to the scratch dir and handed to
+ * a forked worker JVM (see {@link ExtractionWorkerPool}) instead of being parsed in the API heap.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "extraction.mode", havingValue = "isolated")
+@RequiredArgsConstructor
+public class IsolatedTextExtractionService implements TextExtractionService {
+
+    private final ExtractionWorkerPool workerPool;
+
+    @Value("${extraction.scratch-dir:${java.io.tmpdir}}")
+    private String scratchDir;
+
+    @Override
+    public TextExtractionResult extractText(MultipartFile file, OcrTier ocrTier) throws Exception {
+        return onDisk(file, path -> workerPool.extract(path, file.getOriginalFilename(), file.getContentType(), ocrTier));
+    }
+
+    @Override
+    public PdfSplit splitPdf(MultipartFile file, int pagesPerSlice, Path sliceDir) throws Exception {
+        return onDisk(file, path -> workerPool.splitPdf(path, file.getOriginalFilename(), file.getContentType(),
+                pagesPerSlice, sliceDir));
+    }
+
+    @Override
+    public TextExtractionResult ocrPdf(MultipartFile file, OcrTier ocrTier) throws Exception {
+        return onDisk(file, path -> workerPool.ocrPdf(path, file.getOriginalFilename(), file.getContentType(), ocrTier));
+    }
+
+    private interface WorkerCall<T> {
+        T run(Path file) throws Exception;
+    }
+
+    // the worker reads the document from local disk; spool it there unless it already is
+    private <T> T onDisk(MultipartFile file, WorkerCall<T> call) throws Exception {
+        if (file instanceof PathMultipartFile onDisk) return call.run(onDisk.getPath());
+        Path tmp = Files.createTempFile(Path.of(scratchDir), "extract-", ".bin");
+        try {
+            try (InputStream is = file.getInputStream()) {
+                Files.copy(is, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return call.run(tmp);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -2,12 +2,16 @@ package com.hng.docxtractor.service.impl;
 
 import com.hng.docxtractor.service.StorageService;
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -19,13 +23,7 @@ public class MinioStorageService implements StorageService {
 
     @Override
     public String upload(String bucket, String objectName, MultipartFile file) throws Exception {
-        String targetBucket = bucket == null || bucket.isBlank() ? defaultBucket : bucket;
-
-        // create bucket if not exists
-        boolean exists = minioClient.bucketExists(BucketExistsArgs.builder().bucket(targetBucket).build());
-        if (!exists) {
-            minioClient.makeBucket(MakeBucketArgs.builder().bucket(targetBucket).build());
-        }
+        String targetBucket = ensureBucket(bucket);
 
         try (InputStream is = file.getInputStream()) {
             PutObjectArgs putArgs = PutObjectArgs.builder()
@@ -39,4 +37,56 @@ public class MinioStorageService implements StorageService {
         // return a predictable storage path
         return String.format("%s/%s", targetBucket, objectName);
     }
+
+    @Override
+    public String presignedPutUrl(String bucket, String objectName, Duration expiry) throws Exception {
+        String targetBucket = ensureBucket(bucket);
+        return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                .method(Method.PUT)
+                .bucket(targetBucket)
+                .object(objectName)
+                .expiry((int) expiry.toSeconds(), TimeUnit.SECONDS)
+                .build());
+    }
+
+    @Override
+    public long size(String storagePath) throws Exception {
+        String[] loc = split(storagePath);
+        try {
+            return minioClient.statObject(StatObjectArgs.builder().bucket(loc[0]).object(loc[1]).build()).size();
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) return -1;
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream open(String storagePath) throws Exception {
+        String[] loc = split(storagePath);
+        return minioClient.getObject(GetObjectArgs.builder().bucket(loc[0]).object(loc[1]).build());
+    }
+
+    @Override
+    public void delete(String storagePath) throws Exception {
+        String[] loc = split(storagePath);
+        minioClient.removeObject(RemoveObjectArgs.builder().bucket(loc[0]).object(loc[1]).build());
+    }
+
+    private String ensureBucket(String bucket) throws Exception {
+        String targetBucket = bucket == null || bucket.isBlank() ? defaultBucket : bucket;
+
+        // create bucket if not exists
+        boolean exists = minioClient.bucketExists(BucketExistsArgs.builder().bucket(targetBucket).build());
+        if (!exists) {
+            minioClient.makeBucket(MakeBucketArgs.builder().bucket(targetBucket).build());
+        }
+        return targetBucket;
+    }
+
+    // "bucket/object" as returned by upload()
+    private String[] split(String storagePath) {
+        int slash = storagePath.indexOf('/');
+        if (slash <= 0) return new String[]{defaultBucket, storagePath};
+        return new String[]{storagePath.substring(0, slash), storagePath.substring(slash + 1)};
+    }
 }
@@ -3,6 +3,7 @@ package com.hng.docxtractor.service.impl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hng.docxtractor.service.LlmService;
+import com.hng.docxtractor.service.TextNormalizationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.*;
@@ -19,6 +20,20 @@ public class OpenRouterLlmServiceImpl implements LlmService {
 
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper mapper = new ObjectMapper();
+    private final TextNormalizationService textNormalizationService;
+
+    private static final String FULL_ENTITIES = """
+                 "names": [string],
+                 "dates": [string],
+                 "amounts": [string],
+                 "emails": [string],
+                 "phones": [string]\
+            """;
+
+    // emails, phones, dates and amounts are found locally in local-first mode
+    private static final String NAMES_ONLY = """
+                 "names": [string]\
+            """;
 
     @Value("${openrouter.api-key}")
     private String apiKey;
@@ -31,9 +46,16 @@ public class OpenRouterLlmServiceImpl implements LlmService {
 
     @Override
     public LlmResult analyze(String fileName, String fileType, String extractedText, boolean hasImages, int imageCount) {
-        try {
-            String prompt = buildPrompt(fileName, fileType, extractedText, hasImages, imageCount);
+        return complete(buildPrompt(fileName, fileType, extractedText, hasImages, imageCount, FULL_ENTITIES));
+    }
 
+    @Override
+    public LlmResult analyzeFuzzy(String fileName, String fileType, String extractedText, boolean hasImages, int imageCount) {
+        return complete(buildPrompt(fileName, fileType, extractedText, hasImages, imageCount, NAMES_ONLY));
+    }
+
+    private LlmResult complete(String prompt) {
+        try {
             Map<String, Object> body = new HashMap<>();
             body.put("model", model);
 
@@ -128,9 +150,11 @@ public class OpenRouterLlmServiceImpl implements LlmService {
         }
     }
 
-    private String buildPrompt(String fileName, String fileType, String text, boolean hasImages, int imageCount) {
-        // Use a strict JSON-only response instruction and simple schema
-        String escapedText = text == null ? "" : text.replace("\"", "\\\"").replace("\n", "\\n");
+    private String buildPrompt(String fileName, String fileType, String text, boolean hasImages, int imageCount, String entitiesSchema) {
+        // Use a strict JSON-only response instruction and simple schema.
+        // The prompt travels inside a Jackson-serialized body, so the text needs no manual escaping;
+        // it is normalized and cut to the token budget instead.
+        String promptText = textNormalizationService.prepareForPrompt(text);
         return """
                 You are a strict JSON-only document analyzer. Respond ONLY with a single valid JSON object and nothing else.
                 The JSON must contain exactly these top-level fields:
@@ -138,11 +162,7 @@ public class OpenRouterLlmServiceImpl implements LlmService {
                   "documentType": string,   // one of: invoice, cv, resume, report, letter, email, receipt, contract, unknown
                   "summary": string,        // short 2-3 sentence summary
                   "entities": {             // extracted structured entities
-                     "names": [string],
-                     "dates": [string],
-                     "amounts": [string],
-                     "emails": [string],
-                     "phones": [string]
+                %s
                   }
                 }
                 Use the extracted text below. If you cannot find any of the entities, return empty arrays.
@@ -154,6 +174,6 @@ public class OpenRouterLlmServiceImpl implements LlmService {
 
                 ExtractedText:
                 %s
-                """.formatted(fileName, fileType, String.valueOf(hasImages), imageCount, escapedText);
+                """.formatted(entitiesSchema, fileName, fileType, String.valueOf(hasImages), imageCount, promptText);
     }
 }
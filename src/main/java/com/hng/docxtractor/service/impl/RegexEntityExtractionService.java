@@ -0,0 +1,89 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.service.EntityExtractionService;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local extractor for the entity types that don't need a model: a single precompiled
+ * alternation with named groups, so the text is scanned once for all categories.
+ */
+@Service
+public class RegexEntityExtractionService implements EntityExtractionService {
+
+    private static final int MAX_PER_CATEGORY = 50;
+
+    private static final String MONTH =
+            "(?:Jan(?:uary)?|Feb(?:ruary)?|Mar(?:ch)?|Apr(?:il)?|May|June?|July?|Aug(?:ust)?"
+                    + "|Sep(?:t(?:ember)?)?|Oct(?:ober)?|Nov(?:ember)?|Dec(?:ember)?)";
+
+    private static final String EMAIL = "[A-Za-z0-9._%+-]+@[A-Za-z0-9-]+(?:\\.[A-Za-z0-9-]+)*\\.[A-Za-z]{2,}";
+
+    private static final String DATE = "\\d{4}-\\d{1,2}-\\d{1,2}"
+            + "|\\d{1,2}[/.-]\\d{1,2}[/.-](?:\\d{4}|\\d{2})"
+            + "|\\d{1,2}(?:st|nd|rd|th)?\\s+" + MONTH + "\\.?,?\\s+\\d{4}"
+            + "|" + MONTH + "\\.?\\s+\\d{1,2}(?:st|nd|rd|th)?,?\\s+\\d{4}";
+
+    private static final String NUMBER = "\\d{1,3}(?:,\\d{3})+(?:\\.\\d{1,2})?|\\d+(?:\\.\\d{1,2})?";
+    private static final String CURRENCY_CODE = "(?:USD|EUR|GBP|NGN|CAD|AUD)";
+    private static final String AMOUNT = "(?:[$\\u20AC\\u00A3\\u00A5\\u20A6]|" + CURRENCY_CODE + "\\s?)\\s?(?:" + NUMBER + ")"
+            + "|(?:" + NUMBER + ")\\s?" + CURRENCY_CODE;
+
+    private static final String PHONE = "\\+?\\(?\\d{1,4}\\)?(?:[ .-]?\\(?\\d{2,4}\\)?){2,4}";
+
+    // order matters: dates and amounts are tried before the looser phone pattern
+    private static final Pattern ENTITY_PATTERN = Pattern.compile(
+            "(?<![\\w@./-])(?:"
+                    + "(?<email>" + EMAIL + ")"
+                    + "|(?<date>" + DATE + ")"
+                    + "|(?<amount>" + AMOUNT + ")"
+                    + "|(?<phone>" + PHONE + ")"
+                    + ")(?![\\w@])",
+            Pattern.CASE_INSENSITIVE);
+
+    @Override
+    public ExtractedEntities extract(String text) {
+        Set<String> emails = new LinkedHashSet<>();
+        Set<String> phones = new LinkedHashSet<>();
+        Set<String> dates = new LinkedHashSet<>();
+        Set<String> amounts = new LinkedHashSet<>();
+
+        if (text != null && !text.isEmpty()) {
+            Matcher m = ENTITY_PATTERN.matcher(text);
+            while (m.find()) {
+                String value;
+                if ((value = m.group("email")) != null) {
+                    add(emails, value.toLowerCase(Locale.ROOT));
+                } else if ((value = m.group("date")) != null) {
+                    add(dates, value);
+                } else if ((value = m.group("amount")) != null) {
+                    add(amounts, value.replaceAll("\\s+", " "));
+                } else if ((value = m.group("phone")) != null && isPlausiblePhone(value)) {
+                    add(phones, value.trim());
+                }
+            }
+        }
+
+        return new ExtractedEntities(List.copyOf(emails), List.copyOf(phones), List.copyOf(dates), List.copyOf(amounts));
+    }
+
+    private void add(Set<String> target, String value) {
+        if (target.size() < MAX_PER_CATEGORY) target.add(value);
+    }
+
+    // 7-15 digits (E.164 max) and phone-like punctuation, so space-separated runs of years/ids are skipped
+    private boolean isPlausiblePhone(String value) {
+        int digits = 0;
+        boolean punctuated = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isDigit(c)) digits++;
+            else if (c == '-' || c == '(' || c == '.' || c == '+') punctuated = true;
+        }
+        if (digits < 7 || digits > 15) return false;
+        return punctuated || (digits >= 10 && !value.contains(" "));
+    }
+}
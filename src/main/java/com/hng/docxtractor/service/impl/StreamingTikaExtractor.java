@@ -0,0 +1,199 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.exception.ServiceBusyException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.ocr.TesseractOCRConfig;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.WriteOutContentHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generic extraction through Tika's AutoDetectParser for everything without a dedicated path
+ * (PPTX, XLSX, RTF, HTML, EML with attachments, ...). Text is written to the caller's Writer as
+ * the parser produces it, never collected into one String here, and stops at
+ * {@code extraction.tika.max-chars}. Parses that run past {@code extraction.tika.timeout-ms}
+ * are abandoned with whatever text they produced so far.
+ * At most {@code extraction.tika.max-parses} parses run at once. An abandoned parse keeps its slot
+ * until its thread actually returns, so a run of documents that hang the parser ends in 503s
+ * instead of an ever-growing pile of threads.
+ * The parser is built on first use (or by {@link #warmUp()}): loading every Tika parser and
+ * detector takes seconds, which is too long to spend before the app can start.
+ */
+@Component
+@Slf4j
+public class StreamingTikaExtractor {
+
+    private static final int RUNNING = 0, ABANDONED = 1, DONE = 2;
+
+    private volatile AutoDetectParser parser;
+    private ExecutorService executor;
+    private Semaphore slots;
+    private final AtomicInteger abandoned = new AtomicInteger();
+
+    @Value("${extraction.tika.max-chars:5000000}")
+    private int maxChars;
+
+    @Value("${extraction.tika.timeout-ms:60000}")
+    private long timeoutMs;
+
+    // 0 = one per CPU core
+    @Value("${extraction.tika.max-parses:0}")
+    private int maxParses;
+
+    @PostConstruct
+    public void init() {
+        int threads = maxParses > 0 ? maxParses : Runtime.getRuntime().availableProcessors();
+        slots = new Semaphore(threads);
+        // the semaphore keeps submissions to the thread count, so parses don't pile up in the queue
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tika-parse");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public record Result(String detectedType, boolean truncated, boolean timedOut) {
+    }
+
+    /**
+     * Parse {@code in} and stream its plain text into {@code out}. Closes {@code in}.
+     */
+    public Result extract(InputStream in, String fileName, Writer out) throws Exception {
+        AutoDetectParser parser = parser();
+        GuardedWriter sink = new GuardedWriter(out);
+        Metadata metadata = new Metadata();
+        if (fileName != null) metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, fileName);
+
+        ParseContext context = new ParseContext();
+        context.set(Parser.class, parser); // descend into attachments / embedded documents
+        TesseractOCRConfig ocr = new TesseractOCRConfig();
+        ocr.setSkipOcr(true); // images are OCR'd through OcrService, never by Tika shelling out
+        context.set(TesseractOCRConfig.class, ocr);
+
+        if (!slots.tryAcquire()) {
+            in.close();
+            throw new ServiceBusyException("All document parsers are busy (" + abandoned.get()
+                    + " stuck on timed-out documents); please retry later");
+        }
+        AtomicInteger state = new AtomicInteger(RUNNING);
+        Future<Boolean> parse;
+        try {
+            parse = executor.submit(() -> {
+                BodyContentHandler handler = new BodyContentHandler(new WriteOutContentHandler(sink, maxChars));
+                try (in) {
+                    parser.parse(in, handler, metadata, context);
+                    return false;
+                } catch (Exception e) {
+                    if (WriteLimitReachedException.isWriteLimitReached(e)) return true;
+                    throw e;
+                } finally {
+                    if (state.getAndSet(DONE) == ABANDONED) abandoned.decrementAndGet();
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            in.close();
+            throw e;
+        }
+
+        try {
+            boolean truncated = parse.get(timeoutMs, TimeUnit.MILLISECONDS);
+            if (truncated) log.info("Text of {} truncated at {} characters", fileName, maxChars);
+            return new Result(metadata.get(Metadata.CONTENT_TYPE), truncated, false);
+        } catch (TimeoutException e) {
+            sink.seal();
+            if (state.compareAndSet(RUNNING, ABANDONED)) abandoned.incrementAndGet();
+            parse.cancel(true);
+            in.close(); // most parsers give up on the next read
+            log.warn("Parsing {} exceeded {} ms; keeping partial text", fileName, timeoutMs);
+            return new Result(metadata.get(Metadata.CONTENT_TYPE), true, true);
+        } catch (InterruptedException e) {
+            sink.seal();
+            if (state.compareAndSet(RUNNING, ABANDONED)) abandoned.incrementAndGet();
+            parse.cancel(true);
+            in.close();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Parses given up on by their caller whose thread hasn't returned yet; each still holds a slot.
+     */
+    public int abandonedCount() {
+        return abandoned.get();
+    }
+
+    /**
+     * Load parsers and detectors ahead of the first document.
+     */
+    public void warmUp() throws IOException {
+        parser().getDetector().detect(new ByteArrayInputStream(new byte[0]), new Metadata());
+    }
+
+    private AutoDetectParser parser() {
+        AutoDetectParser p = parser;
+        if (p == null) {
+            synchronized (this) {
+                p = parser;
+                if (p == null) parser = p = new AutoDetectParser();
+            }
+        }
+        return p;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Drops writes once sealed, so an abandoned parse thread can't touch the caller's Writer.
+     */
+    private static final class GuardedWriter extends Writer {
+        private final Writer target;
+        private boolean sealed;
+
+        private GuardedWriter(Writer target) {
+            this.target = target;
+        }
+
+        synchronized void seal() {
+            sealed = true;
+        }
+
+        @Override
+        public synchronized void write(char[] cbuf, int off, int len) throws IOException {
+            if (!sealed) target.write(cbuf, off, len);
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (!sealed) target.flush();
+        }
+
+        @Override
+        public void close() {
+            // the caller owns the target
+        }
+    }
+}
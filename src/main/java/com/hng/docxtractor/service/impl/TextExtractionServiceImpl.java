@@ -2,19 +2,22 @@ package com.hng.docxtractor.service.impl;
 
 import com.hng.docxtractor.service.TextExtractionService;
 import com.hng.docxtractor.ocr.OcrService;
+import com.hng.docxtractor.ocr.OcrTier;
 import lombok.RequiredArgsConstructor;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.Splitter;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.rendering.*;
 import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
-import org.apache.poi.xwpf.usermodel.*;
 import org.apache.tika.Tika;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -22,79 +25,133 @@ import java.util.List;
 public class TextExtractionServiceImpl implements TextExtractionService {
 
     private final OcrService ocrService;
+    private final StreamingTikaExtractor tikaExtractor;
     private final Tika tika = new Tika();
     private static final int TEXT_THRESHOLD = 20;
+    private static final String DOCX_MIME = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+    private static final String DOC_MIME = "application/msword";
+
+    // PDF objects beyond this many bytes spill to a scratch file instead of the heap
+    @Value("${extraction.pdf.max-heap-bytes:33554432}")
+    private long pdfMaxHeapBytes;
+
+    @Value("${extraction.scratch-dir:${java.io.tmpdir}}")
+    private String scratchDir;
+
+    // per file-type OCR tier when the request doesn't pick one
+    @Value("${ocr.tier.pdf:${ocr.default-tier:balanced}}")
+    private String pdfTier;
+    @Value("${ocr.tier.image:${ocr.default-tier:balanced}}")
+    private String imageTier;
+
+    // memory admission happens once per document in ExtractionSchedulerImpl, not here per call/slice
+
+    @Override
+    public PdfSplit splitPdf(MultipartFile file, int pagesPerSlice, Path sliceDir) throws Exception {
+        try (InputStream is = file.getInputStream(); PDDocument pdf = PDDocument.load(is, pdfMemory())) {
+            int pages = pdf.getNumberOfPages();
+            String text = new PDFTextStripper().getText(pdf);
+            int contentPages = countContentPages(new PDFRenderer(pdf), 0, pages);
+            TextExtractionResult layer = new TextExtractionResult(text == null ? "" : text, contentPages > 0, contentPages);
+            if (hasText(text) || contentPages == 0) return new PdfSplit(layer, List.of());
+
+            Splitter splitter = new Splitter();
+            splitter.setSplitAtPage(Math.max(1, pagesPerSlice));
+            List<PDDocument> parts = splitter.split(pdf);
+            List<Path> slices = new ArrayList<>(parts.size());
+            try {
+                for (int i = 0; i < parts.size(); i++) {
+                    Path slice = sliceDir.resolve(String.format("slice-%05d.pdf", i));
+                    parts.get(i).save(slice.toFile());
+                    slices.add(slice);
+                }
+            } finally {
+                for (PDDocument part : parts) part.close();
+            }
+            return new PdfSplit(layer, slices);
+        } catch (Exception e) {
+            return new PdfSplit(new TextExtractionResult("", false, 0), List.of());
+        }
+    }
+
+    @Override
+    public TextExtractionResult ocrPdf(MultipartFile file, OcrTier ocrTier) throws Exception {
+        try (InputStream is = file.getInputStream(); PDDocument pdf = PDDocument.load(is, pdfMemory())) {
+            String text = ocrPages(new PDFRenderer(pdf), 0, pdf.getNumberOfPages(), resolveTier(ocrTier, pdfTier));
+            return new TextExtractionResult(text, false, 0);
+        } catch (Exception e) {
+            return new TextExtractionResult("", false, 0);
+        }
+    }
 
     @Override
-    public TextExtractionResult extractText(MultipartFile file) throws Exception {
+    public TextExtractionResult extractText(MultipartFile file, OcrTier ocrTier) throws Exception {
         String filename = file.getOriginalFilename() == null ? "file" : file.getOriginalFilename();
         String detected = tika.detect(file.getInputStream(), filename);
 
         if (detected != null && detected.startsWith("image/")) {
             // OCR image
-            String txt = ocrService.doOcr(file.getInputStream());
+            String txt = ocrService.doOcr(file.getInputStream(), resolveTier(ocrTier, imageTier));
             return new TextExtractionResult(txt == null ? "" : txt, true, 1);
         }
 
         if (filename.toLowerCase().endsWith(".pdf") || "application/pdf".equals(detected)) {
-            return extractFromPdf(file.getInputStream());
+            return extractFromPdf(file.getInputStream(), resolveTier(ocrTier, pdfTier));
         }
 
-        if (filename.toLowerCase().endsWith(".docx") || detected.contains("officedocument")) {
+        if (filename.toLowerCase().endsWith(".docx") || DOCX_MIME.equals(detected)) {
             return extractFromDocx(file.getInputStream());
         }
 
-        // fallback: try tika
-        String content = tika.parseToString(file.getInputStream());
+        if (filename.toLowerCase().endsWith(".doc") || DOC_MIME.equals(detected)) {
+            return extractFromDoc(file.getInputStream());
+        }
+
+        // fallback: everything else (PPTX, XLSX, RTF, HTML, EML, ...) through streaming Tika, capped and time-limited
+        // the text ends up in one column anyway, so it is collected here; streaming only bounds it to max-chars
+        StringWriter out = new StringWriter();
+        tikaExtractor.extract(file.getInputStream(), filename, out);
+        String content = out.toString();
         boolean hasText = content != null && content.trim().length() > TEXT_THRESHOLD;
         return new TextExtractionResult(hasText ? content : "", false, 0);
     }
 
+    private OcrTier resolveTier(OcrTier requested, String configured) {
+        if (requested != null) return requested;
+        OcrTier tier = OcrTier.parse(configured);
+        return tier == null ? OcrTier.BALANCED : tier;
+    }
+
     private TextExtractionResult extractFromDocx(InputStream is) {
-        try (XWPFDocument doc = new XWPFDocument(is);
-             XWPFWordExtractor extractor = new XWPFWordExtractor(doc)) {
-            String text = extractor.getText();
-            List<XWPFPictureData> pics = doc.getAllPictures();
-            int count = pics == null ? 0 : pics.size();
-            return new TextExtractionResult(text == null ? "" : text, count > 0, count);
+        try (is) {
+            return WordTextExtractor.extractDocx(is, new File(scratchDir));
+        } catch (Exception e) {
+            return new TextExtractionResult("", false, 0);
+        }
+    }
+
+    private TextExtractionResult extractFromDoc(InputStream is) {
+        try (is) {
+            return WordTextExtractor.extractDoc(is, new File(scratchDir));
         } catch (Exception e) {
             return new TextExtractionResult("", false, 0);
         }
     }
 
-    private TextExtractionResult extractFromPdf(InputStream is) {
-        try (PDDocument pdf = PDDocument.load(is)) {
+    private TextExtractionResult extractFromPdf(InputStream is, OcrTier tier) {
+        try (PDDocument pdf = PDDocument.load(is, pdfMemory())) {
+            int pages = pdf.getNumberOfPages();
+
             // basic text extraction
-            PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(pdf);
-            boolean hasText = text != null && text.trim().length() > TEXT_THRESHOLD;
+            String text = new PDFTextStripper().getText(pdf);
 
             // count pages with content heuristic
             PDFRenderer renderer = new PDFRenderer(pdf);
-            int imagePageCount = 0;
-            for (int i = 0; i < pdf.getNumberOfPages(); i++) {
-                BufferedImage img = renderer.renderImageWithDPI(i, 16, ImageType.RGB);
-                if (img != null && hasNonWhitePixels(img)) imagePageCount++;
-            }
+            int imagePageCount = countContentPages(renderer, 0, pages);
 
             // if not enough text and pages have images, do OCR on pages
-            if (!hasText && imagePageCount > 0) {
-                StringBuilder sb = new StringBuilder();
-                PDFRenderer r2 = new PDFRenderer(pdf);
-                for (int i = 0; i < pdf.getNumberOfPages(); i++) {
-                    BufferedImage bim = r2.renderImageWithDPI(i, 300, ImageType.RGB);
-                    if (bim == null) continue;
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    ImageIO.write(bim, "PNG", baos);
-                    try (ByteArrayInputStream bis = new ByteArrayInputStream(baos.toByteArray())) {
-                        String ocrText = ocrService.doOcr(bis);
-                        if (ocrText != null && !ocrText.isBlank()) {
-                            sb.append(ocrText).append("\n");
-                        }
-                    }
-                }
-                String ocrRes = sb.toString();
-                String finalText = (text == null ? "" : text) + "\n" + ocrRes;
+            if (!hasText(text) && imagePageCount > 0) {
+                String finalText = (text == null ? "" : text) + "\n" + ocrPages(renderer, 0, pages, tier);
                 return new TextExtractionResult(finalText.trim(), imagePageCount > 0, imagePageCount);
             }
 
@@ -105,6 +162,38 @@ public class TextExtractionServiceImpl implements TextExtractionService {
         }
     }
 
+    private MemoryUsageSetting pdfMemory() {
+        return MemoryUsageSetting.setupMixed(pdfMaxHeapBytes).setTempDir(new File(scratchDir));
+    }
+
+    private static boolean hasText(String text) {
+        return text != null && text.trim().length() > TEXT_THRESHOLD;
+    }
+
+    private int countContentPages(PDFRenderer renderer, int first, int end) throws IOException {
+        int count = 0;
+        for (int i = first; i < end; i++) {
+            BufferedImage img = renderer.renderImageWithDPI(i, 16, ImageType.RGB);
+            if (img != null && hasNonWhitePixels(img)) count++;
+        }
+        return count;
+    }
+
+    // render straight to 8-bit gray at the tier's DPI and hand the image over as-is
+    // (no PNG round trip, a quarter of the RGB memory)
+    private String ocrPages(PDFRenderer renderer, int first, int end, OcrTier tier) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = first; i < end; i++) {
+            BufferedImage bim = renderer.renderImageWithDPI(i, tier.dpi, ImageType.GRAY);
+            if (bim == null) continue;
+            String ocrText = ocrService.doOcr(bim, tier.dpi, tier);
+            if (ocrText != null && !ocrText.isBlank()) {
+                sb.append(ocrText).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
     // cheap heuristic to detect non-white pixels
     private boolean hasNonWhitePixels(BufferedImage img) {
         int w = img.getWidth(), h = img.getHeight();
@@ -0,0 +1,145 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.service.TextNormalizationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+@Service
+@Slf4j
+public class TextNormalizationServiceImpl implements TextNormalizationService {
+
+    private static final Pattern CONTROL_CHARS = Pattern.compile("[\\p{Cntrl}&&[^\\n\\t]]|\\p{Co}|\\uFFFD");
+    private static final Pattern HYPHEN_BREAK = Pattern.compile("(\\p{Ll})-\\n[ \\t]*(\\p{Ll})");
+    private static final Pattern INLINE_WHITESPACE = Pattern.compile("[ \\t\\u00A0\\u2000-\\u200B\\u3000]+");
+    // page numbers change from page to page, so only these are masked when comparing lines;
+    // a line with any other number ("Total: $123", "Qty: 4") is content and never a header candidate
+    private static final Pattern PAGE_LABEL = Pattern.compile("\\b(page|pg\\.?|p\\.)\\s*\\d+(\\s*(of|/)\\s*\\d+)?\\b");
+    private static final Pattern BARE_PAGE_NUMBER = Pattern.compile("^[-\u2013\u2014(\\[ ]*\\d+(\\s*(of|/)\\s*\\d+)?[-\u2013\u2014)\\] ]*$");
+
+    // a header/footer repeats on every page, so its occurrences are spread out;
+    // table rows that repeat (e.g. "Qty 1") sit next to each other and are kept
+    private static final int HEADER_MIN_REPEATS = 3;
+    private static final int HEADER_MIN_LINE_GAP = 10;
+    private static final int HEADER_MAX_LENGTH = 80;
+
+    // lines where fewer than this share of non-space chars are letters/digits are treated as OCR noise
+    private static final double MIN_ALNUM_RATIO = 0.5;
+
+    private static final double HEAD_SHARE = 0.7;
+
+    @Value("${llm.prompt.max-tokens:6000}")
+    private int maxPromptTokens;
+
+    @Value("${llm.prompt.chars-per-token:4}")
+    private int charsPerToken;
+
+    @Override
+    public String normalize(String text) {
+        if (text == null || text.isBlank()) return "";
+
+        String cleaned = text.replace("\r\n", "\n").replace('\r', '\n').replace('\f', '\n');
+        cleaned = CONTROL_CHARS.matcher(cleaned).replaceAll("");
+        cleaned = HYPHEN_BREAK.matcher(cleaned).replaceAll("$1$2");
+
+        String[] rawLines = cleaned.split("\n", -1);
+        List<String> lines = new ArrayList<>(rawLines.length);
+        for (String raw : rawLines) {
+            lines.add(INLINE_WHITESPACE.matcher(raw).replaceAll(" ").trim());
+        }
+
+        Set<String> repeatedKeys = findRepeatedHeaderKeys(lines);
+
+        StringBuilder sb = new StringBuilder(cleaned.length());
+        boolean lastBlank = true;
+        for (String line : lines) {
+            boolean drop = line.isEmpty()
+                    || isNoise(line)
+                    || (!repeatedKeys.isEmpty() && line.length() <= HEADER_MAX_LENGTH && repeatedKeys.contains(headerKey(line)));
+            if (drop) {
+                if (!lastBlank && line.isEmpty()) {
+                    sb.append('\n');
+                    lastBlank = true;
+                }
+                continue;
+            }
+            sb.append(line).append('\n');
+            lastBlank = false;
+        }
+        return sb.toString().trim();
+    }
+
+    @Override
+    public String prepareForPrompt(String text) {
+        String normalized = normalize(text);
+        long budgetChars = (long) Math.max(1, maxPromptTokens) * Math.max(1, charsPerToken);
+        if (normalized.length() <= budgetChars) return normalized;
+
+        int budget = (int) budgetChars;
+        int headChars = (int) (budget * HEAD_SHARE);
+        int tailChars = budget - headChars;
+
+        // cut on line boundaries where possible so we don't hand the model half a sentence
+        int headEnd = normalized.lastIndexOf('\n', headChars);
+        if (headEnd < headChars / 2) headEnd = headChars;
+        int tailStart = normalized.indexOf('\n', normalized.length() - tailChars);
+        if (tailStart < 0 || tailStart < headEnd) tailStart = normalized.length() - tailChars;
+
+        int omitted = tailStart - headEnd;
+        log.debug("Prompt text truncated: {} chars -> budget {} chars ({} omitted)", normalized.length(), budget, omitted);
+
+        return normalized.substring(0, headEnd).trim()
+                + "\n[... " + omitted + " characters omitted ...]\n"
+                + normalized.substring(tailStart).trim();
+    }
+
+    private Set<String> findRepeatedHeaderKeys(List<String> lines) {
+        Map<String, int[]> stats = new HashMap<>(); // key -> {count, lastIndex, minGap}
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isEmpty() || line.length() > HEADER_MAX_LENGTH) continue;
+            String key = headerKey(line);
+            if (key == null) continue;
+            int[] s = stats.get(key);
+            if (s == null) {
+                stats.put(key, new int[]{1, i, Integer.MAX_VALUE});
+            } else {
+                s[2] = Math.min(s[2], i - s[1]);
+                s[0]++;
+                s[1] = i;
+            }
+        }
+        Set<String> repeated = new HashSet<>();
+        for (Map.Entry<String, int[]> e : stats.entrySet()) {
+            int[] s = e.getValue();
+            if (s[0] >= HEADER_MIN_REPEATS && s[2] >= HEADER_MIN_LINE_GAP) repeated.add(e.getKey());
+        }
+        return repeated;
+    }
+
+    // "ACME - Page 3 of 10" and "- 3 -" compare equal across pages; null for lines with other numbers
+    private String headerKey(String line) {
+        String key = line.toLowerCase(Locale.ROOT);
+        if (BARE_PAGE_NUMBER.matcher(key).matches()) return "#";
+        key = PAGE_LABEL.matcher(key).replaceAll("page #");
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.isDigit(key.charAt(i))) return null;
+        }
+        return key;
+    }
+
+    private boolean isNoise(String line) {
+        int nonSpace = 0, alnum = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) continue;
+            nonSpace++;
+            if (Character.isLetterOrDigit(c)) alnum++;
+        }
+        if (nonSpace == 0) return true;
+        return (double) alnum / nonSpace < MIN_ALNUM_RATIO;
+    }
+}
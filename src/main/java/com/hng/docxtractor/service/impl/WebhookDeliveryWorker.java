@@ -0,0 +1,240 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.entity.WebhookOutboxEntry;
+import com.hng.docxtractor.enums.WebhookDeliveryStatus;
+import com.hng.docxtractor.repo.WebhookOutboxRepository;
+import com.hng.docxtractor.repo.WebhookSubscriptionRepository;
+import com.hng.docxtractor.util.PublicAddressGuard;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Drains the webhook outbox. Due rows are leased (so replicas don't double-send), grouped by
+ * target, and POSTed as batches:
+ * <pre>
+ * {"deliveryId": "...", "events": [ {...}, {...} ]}
+ * </pre>
+ * signed with {@code X-DocXtractor-Signature: t=<unix seconds>,v1=<hex HMAC-SHA256 of "t.body">}.
+ * Failures retry with exponential backoff and jitter; after {@code webhook.max-attempts} a row is DEAD.
+ * Targets are resolved through {@link PublicAddressGuard} at connect time, so a name re-pointed at an
+ * internal address after registration (DNS rebinding) is refused; redirects are not followed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookDeliveryWorker {
+
+    static final String SIGNATURE_HEADER = "X-DocXtractor-Signature";
+    static final String DELIVERY_HEADER = "X-DocXtractor-Delivery";
+
+    private final WebhookOutboxRepository outboxRepo;
+    private final WebhookSubscriptionRepository subscriptionRepo;
+    private RestTemplate restTemplate;
+
+    @Value("${webhook.signing-secret:}")
+    private String signingSecret;
+
+    @Value("${webhook.claim-batch-size:200}")
+    private int claimBatchSize;
+
+    @Value("${webhook.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${webhook.initial-backoff:PT10S}")
+    private Duration initialBackoff;
+
+    @Value("${webhook.max-backoff:PT1H}")
+    private Duration maxBackoff;
+
+    @Value("${webhook.lease-duration:PT2M}")
+    private Duration leaseDuration;
+
+    @Value("${webhook.retention:P7D}")
+    private Duration retention;
+
+    @Value("${webhook.allow-private-targets:false}")
+    private boolean allowPrivateTargets;
+
+    // one slow endpoint shouldn't hold up deliveries to the others
+    private final ExecutorService senders = Executors.newFixedThreadPool(4, r -> {
+        Thread t = new Thread(r, "webhook-sender");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // per-upload callbacks are signed with a per-document key, so they are batched per document
+    private record Target(String url, UUID subscriptionId, UUID documentId) {
+    }
+
+    @PostConstruct
+    public void init() {
+        SystemDefaultDnsResolver resolver = allowPrivateTargets ? SystemDefaultDnsResolver.INSTANCE : new SystemDefaultDnsResolver() {
+            @Override
+            public InetAddress[] resolve(String host) throws UnknownHostException {
+                return PublicAddressGuard.resolvePublic(host);
+            }
+        };
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(5000))
+                .setResponseTimeout(Timeout.ofMilliseconds(5000))
+                .build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(HttpClientBuilder.create()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create().setDnsResolver(resolver).build())
+                .setDefaultRequestConfig(requestConfig)
+                .disableRedirectHandling()
+                .build()));
+    }
+
+    @Scheduled(fixedDelayString = "${webhook.poll-interval-ms:2000}")
+    public void deliverDue() {
+        Instant now = Instant.now();
+        List<UUID> due = outboxRepo.findDue(WebhookDeliveryStatus.PENDING, now, PageRequest.of(0, claimBatchSize));
+        if (due.isEmpty()) return;
+
+        String owner = UUID.randomUUID().toString();
+        if (outboxRepo.claim(due, owner, now.plus(leaseDuration), now, WebhookDeliveryStatus.PENDING) == 0) return;
+
+        Map<Target, List<WebhookOutboxEntry>> byTarget = new LinkedHashMap<>();
+        for (WebhookOutboxEntry e : outboxRepo.findByLeaseOwner(owner)) {
+            UUID documentId = e.getSubscriptionId() == null ? e.getDocumentId() : null;
+            byTarget.computeIfAbsent(new Target(e.getUrl(), e.getSubscriptionId(), documentId), t -> new ArrayList<>()).add(e);
+        }
+
+        List<Future<?>> sends = new ArrayList<>();
+        for (Map.Entry<Target, List<WebhookOutboxEntry>> group : byTarget.entrySet()) {
+            List<WebhookOutboxEntry> entries = group.getValue();
+            for (int i = 0; i < entries.size(); i += maxBatchSize) {
+                List<WebhookOutboxEntry> batch = entries.subList(i, Math.min(entries.size(), i + maxBatchSize));
+                sends.add(senders.submit(() -> send(owner, group.getKey(), batch)));
+            }
+        }
+        for (Future<?> f : sends) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return; // unfinished rows are re-leased once the lease expires
+            } catch (ExecutionException e) {
+                log.warn("Webhook delivery task failed: {}", e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+            }
+        }
+    }
+
+    private void send(String owner, Target target, List<WebhookOutboxEntry> batch) {
+        List<UUID> ids = batch.stream().map(WebhookOutboxEntry::getId).toList();
+
+        String secret = signingSecret == null || signingSecret.isBlank() ? null
+                : target.subscriptionId() == null ? callbackSecret(signingSecret, target.documentId())
+                : subscriptionRepo.existsById(target.subscriptionId()) ? subscriptionSecret(signingSecret, target.subscriptionId())
+                : null;
+        if (secret == null) {
+            // subscription deleted (or signing secret removed) since the event was queued
+            outboxRepo.markFailed(ids, owner, Instant.now(), "No signing secret for target");
+            outboxRepo.markDead(ids, 0, WebhookDeliveryStatus.PENDING, WebhookDeliveryStatus.DEAD);
+            return;
+        }
+
+        String deliveryId = UUID.randomUUID().toString();
+        StringBuilder body = new StringBuilder("{\"deliveryId\":\"").append(deliveryId).append("\",\"events\":[");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) body.append(',');
+            body.append(batch.get(i).getPayload()); // stored as serialized JSON
+        }
+        body.append("]}");
+        String json = body.toString();
+
+        long timestamp = Instant.now().getEpochSecond();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(DELIVERY_HEADER, deliveryId);
+        headers.set(SIGNATURE_HEADER, "t=" + timestamp + ",v1=" + sign(secret, timestamp + "." + json));
+
+        try {
+            restTemplate.exchange(target.url(), HttpMethod.POST, new HttpEntity<>(json, headers), Void.class);
+            outboxRepo.markDelivered(ids, owner, WebhookDeliveryStatus.DELIVERED, Instant.now());
+        } catch (Exception e) {
+            int attempts = batch.stream().mapToInt(WebhookOutboxEntry::getAttempts).max().orElse(0) + 1;
+            String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            outboxRepo.markFailed(ids, owner, Instant.now().plus(backoff(attempts)),
+                    error.length() > 1000 ? error.substring(0, 1000) : error);
+            int dead = outboxRepo.markDead(ids, maxAttempts, WebhookDeliveryStatus.PENDING, WebhookDeliveryStatus.DEAD);
+            log.warn("Webhook delivery of {} event(s) to {} failed (attempt {}): {}{}", batch.size(), target.url(),
+                    attempts, error, dead > 0 ? "; giving up on " + dead : "");
+        }
+    }
+
+    // initial * 2^(attempts-1), capped, with up to 20% jitter so retries from a burst spread out
+    private Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(20, attempts - 1);
+        long capped = Math.min(maxBackoff.toMillis(), base);
+        long jitter = (long) (capped * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(capped + jitter);
+    }
+
+    /**
+     * A subscription's signing key: derived rather than stored, so the database holds no usable key.
+     * Rotating webhook.signing-secret rotates every subscription's key with it.
+     */
+    static String subscriptionSecret(String signingSecret, UUID subscriptionId) {
+        return sign(signingSecret, "subscription:" + subscriptionId);
+    }
+
+    /**
+     * The signing key for a document's per-upload callbackUrl, derived the same way and returned once
+     * in the upload response. webhook.signing-secret itself is never handed out.
+     */
+    static String callbackSecret(String signingSecret, UUID documentId) {
+        return sign(signingSecret, "callback:" + documentId);
+    }
+
+    static String sign(String secret, String message) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${webhook.purge-interval-ms:3600000}")
+    public void purgeDelivered() {
+        int purged = outboxRepo.purgeDelivered(WebhookDeliveryStatus.DELIVERED, Instant.now().minus(retention));
+        if (purged > 0) log.info("Purged {} delivered webhook event(s)", purged);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+}
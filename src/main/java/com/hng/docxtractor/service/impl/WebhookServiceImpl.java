@@ -0,0 +1,205 @@
+package com.hng.docxtractor.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hng.docxtractor.dto.WebhookSubscriptionDto;
+import com.hng.docxtractor.entity.Document;
+import com.hng.docxtractor.entity.WebhookOutboxEntry;
+import com.hng.docxtractor.entity.WebhookSubscription;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.enums.WebhookDeliveryStatus;
+import com.hng.docxtractor.exception.ApiException;
+import com.hng.docxtractor.exception.UnauthorizedException;
+import com.hng.docxtractor.repo.WebhookOutboxRepository;
+import com.hng.docxtractor.repo.WebhookSubscriptionRepository;
+import com.hng.docxtractor.service.WebhookService;
+import com.hng.docxtractor.util.PublicAddressGuard;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class WebhookServiceImpl implements WebhookService {
+
+    private static final int MAX_SUBSCRIPTIONS_PER_CLIENT = 10;
+
+    private final WebhookSubscriptionRepository subscriptionRepo;
+    private final WebhookOutboxRepository outboxRepo;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${webhook.signing-secret:}")
+    private String signingSecret;
+
+    // clientId:sha256-hex(key) pairs, comma separated; subscriptions are disabled while empty
+    @Value("${webhook.client-keys:}")
+    private String clientKeysProperty;
+
+    // only for local development against a receiver on this machine or network
+    @Value("${webhook.allow-private-targets:false}")
+    private boolean allowPrivateTargets;
+
+    private final Map<String, byte[]> clientKeyHashes = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (String pair : clientKeysProperty.split(",")) {
+            if (pair.isBlank()) continue;
+            int colon = pair.lastIndexOf(':');
+            if (colon <= 0) throw new IllegalStateException("webhook.client-keys entries must be clientId:sha256hex");
+            clientKeyHashes.put(pair.substring(0, colon).trim(), HexFormat.of().parseHex(pair.substring(colon + 1).trim()));
+        }
+    }
+
+    @Override
+    @Transactional
+    public WebhookSubscriptionDto register(String clientId, String clientKey, String url) {
+        authenticate(clientId, clientKey);
+        if (signingSecret == null || signingSecret.isBlank())
+            throw new ApiException("Webhooks are not available: webhook.signing-secret is not configured");
+        String target = validateUrl(url);
+        if (subscriptionRepo.findByClientId(clientId).size() >= MAX_SUBSCRIPTIONS_PER_CLIENT)
+            throw new ApiException("At most " + MAX_SUBSCRIPTIONS_PER_CLIENT + " webhooks per client");
+
+        WebhookSubscription sub = subscriptionRepo.save(WebhookSubscription.builder()
+                .clientId(clientId)
+                .url(target)
+                .build());
+        return toDto(sub, WebhookDeliveryWorker.subscriptionSecret(signingSecret, sub.getId()));
+    }
+
+    @Override
+    public List<WebhookSubscriptionDto> list(String clientId, String clientKey) {
+        authenticate(clientId, clientKey);
+        return subscriptionRepo.findByClientId(clientId).stream().map(s -> toDto(s, null)).toList();
+    }
+
+    @Override
+    @Transactional
+    public void delete(String clientId, String clientKey, UUID id) {
+        authenticate(clientId, clientKey);
+        WebhookSubscription sub = subscriptionRepo.findById(id)
+                .filter(s -> s.getClientId().equals(clientId))
+                .orElseThrow(() -> new ApiException("Webhook not found: " + id));
+        subscriptionRepo.delete(sub);
+    }
+
+    @Override
+    public String validateCallbackUrl(String url) {
+        if (url == null || url.isBlank()) return null;
+        if (signingSecret == null || signingSecret.isBlank())
+            throw new ApiException("callbackUrl is not available: webhook.signing-secret is not configured");
+        return validateUrl(url);
+    }
+
+    @Override
+    public String callbackSecret(UUID documentId) {
+        return WebhookDeliveryWorker.callbackSecret(signingSecret, documentId);
+    }
+
+    @Override
+    @Transactional
+    public void enqueueCompletion(Document doc) {
+        if (doc.getStatus() != DocumentStatus.COMPLETED && doc.getStatus() != DocumentStatus.FAILED) return;
+
+        List<WebhookOutboxEntry> entries = new ArrayList<>();
+        String event = doc.getStatus() == DocumentStatus.COMPLETED ? "document.completed" : "document.failed";
+        String payload = payload(doc, event);
+        Instant now = Instant.now();
+
+        if (doc.getCallbackUrl() != null) {
+            entries.add(entry(doc, null, doc.getCallbackUrl(), event, payload, now));
+        }
+        if (doc.getClientId() != null) {
+            for (WebhookSubscription sub : subscriptionRepo.findByClientId(doc.getClientId())) {
+                entries.add(entry(doc, sub.getId(), sub.getUrl(), event, payload, now));
+            }
+        }
+        if (!entries.isEmpty()) outboxRepo.saveAll(entries);
+    }
+
+    private WebhookOutboxEntry entry(Document doc, UUID subscriptionId, String url, String event, String payload, Instant now) {
+        return WebhookOutboxEntry.builder()
+                .documentId(doc.getId())
+                .subscriptionId(subscriptionId)
+                .url(url)
+                .event(event)
+                .payload(payload)
+                .status(WebhookDeliveryStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .build();
+    }
+
+    private String payload(Document doc, String event) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("event", event);
+        node.put("documentId", doc.getId().toString());
+        node.put("fileName", doc.getOriginalFileName());
+        node.put("status", doc.getStatus().name());
+        node.put("documentType", doc.getDocumentType());
+        node.put("summary", doc.getSummary());
+        node.put("occurredAt", Instant.now().toString());
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (Exception e) {
+            throw new ApiException("Could not serialize webhook payload", e);
+        }
+    }
+
+    private void authenticate(String clientId, String clientKey) {
+        if (clientKeyHashes.isEmpty())
+            throw new ApiException("Webhook subscriptions are not available: webhook.client-keys is not configured");
+        if (clientId == null || clientId.isBlank() || clientKey == null || clientKey.isBlank())
+            throw new UnauthorizedException("X-Client-Id and X-Client-Key headers are required");
+        byte[] expected = clientKeyHashes.get(clientId);
+        // constant-time, and also run for unknown clients so timing doesn't reveal which ids exist
+        boolean matches = MessageDigest.isEqual(expected == null ? new byte[32] : expected, sha256(clientKey));
+        if (expected == null || !matches)
+            throw new UnauthorizedException("Unknown client or wrong X-Client-Key");
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private String validateUrl(String url) {
+        if (url == null || url.isBlank()) throw new ApiException("url is required");
+        try {
+            URI uri = URI.create(url.trim());
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+            if ((!scheme.equals("https") && !scheme.equals("http")) || uri.getHost() == null)
+                throw new ApiException("Webhook URL must be an absolute http(s) URL");
+            // checked again on every delivery, in case the name is re-pointed after registration
+            if (!allowPrivateTargets) PublicAddressGuard.resolvePublic(uri.getHost());
+            return uri.toString();
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Invalid webhook URL: " + e.getMessage());
+        } catch (UnknownHostException e) {
+            throw new ApiException("Webhook URL must point to a public address: " + e.getMessage());
+        }
+    }
+
+    private WebhookSubscriptionDto toDto(WebhookSubscription s, String secret) {
+        return WebhookSubscriptionDto.builder()
+                .id(s.getId())
+                .clientId(s.getClientId())
+                .url(s.getUrl())
+                .secret(secret)
+                .createdAt(s.getCreatedAt())
+                .build();
+    }
+}
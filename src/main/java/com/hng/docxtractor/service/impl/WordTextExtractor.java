@@ -0,0 +1,162 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.service.TextExtractionService.TextExtractionResult;
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.extractor.WordExtractor;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Word extraction without building POI's full object model.
+ * DOCX: the body, headers, footers, footnotes and endnotes are streamed through StAX and media
+ * parts are only counted from the zip central directory, so embedded pictures are never inflated.
+ * DOC: read through HWPF from a file-backed POIFS instead of an in-memory copy.
+ */
+final class WordTextExtractor {
+
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String DOCUMENT_PART = "word/document.xml";
+    private static final String MEDIA_PREFIX = "word/media/";
+    private static final String HEADER_PREFIX = "word/header";
+    private static final String FOOTER_PREFIX = "word/footer";
+    private static final String FOOTNOTES_PART = "word/footnotes.xml";
+    private static final String ENDNOTES_PART = "word/endnotes.xml";
+
+    private static final XMLInputFactory XML_INPUT = XMLInputFactory.newFactory();
+
+    static {
+        XML_INPUT.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_INPUT.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    }
+
+    private WordTextExtractor() {
+    }
+
+    static TextExtractionResult extractDocx(InputStream is, File scratchDir) throws IOException {
+        Path tmp = spool(is, scratchDir, ".docx");
+        try (ZipFile zip = new ZipFile(tmp.toFile())) {
+            int mediaCount = 0;
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry e = entries.nextElement();
+                if (!e.isDirectory() && e.getName().startsWith(MEDIA_PREFIX)) mediaCount++;
+            }
+
+            // same parts, in the same order, as XWPFWordExtractor: headers, body, notes, footers
+            StringBuilder sb = new StringBuilder();
+            for (String part : partNames(zip, HEADER_PREFIX)) readPart(zip, part, sb);
+            readPart(zip, DOCUMENT_PART, sb);
+            readPart(zip, FOOTNOTES_PART, sb);
+            readPart(zip, ENDNOTES_PART, sb);
+            for (String part : partNames(zip, FOOTER_PREFIX)) readPart(zip, part, sb);
+            return new TextExtractionResult(sb.toString(), mediaCount > 0, mediaCount);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static TextExtractionResult extractDoc(InputStream is, File scratchDir) throws IOException {
+        Path tmp = spool(is, scratchDir, ".doc");
+        try (POIFSFileSystem fs = new POIFSFileSystem(tmp.toFile(), true);
+             HWPFDocument doc = new HWPFDocument(fs);
+             WordExtractor extractor = new WordExtractor(doc)) {
+            String text = extractor.getText();
+            int count = doc.getPicturesTable().getAllPictures().size();
+            return new TextExtractionResult(text == null ? "" : text, count > 0, count);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // zip central directory / POIFS need random access, which a servlet stream doesn't give us
+    private static Path spool(InputStream is, File scratchDir, String suffix) throws IOException {
+        Path tmp = Files.createTempFile(scratchDir.toPath(), "word-", suffix);
+        try {
+            Files.copy(is, tmp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return tmp;
+    }
+
+    // word/header1.xml, word/header2.xml, ... in numeric order
+    private static List<String> partNames(ZipFile zip, String prefix) {
+        List<String> names = new ArrayList<>();
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            String name = entries.nextElement().getName();
+            if (name.startsWith(prefix) && name.endsWith(".xml") && name.indexOf('/', prefix.length()) < 0) names.add(name);
+        }
+        names.sort(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+        return names;
+    }
+
+    private static void readPart(ZipFile zip, String name, StringBuilder sb) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null) return;
+        try (InputStream xml = zip.getInputStream(entry)) {
+            readPartXml(xml, sb);
+        }
+    }
+
+    private static void readPartXml(InputStream xml, StringBuilder sb) throws IOException {
+        XMLStreamReader r = null;
+        try {
+            r = XML_INPUT.createXMLStreamReader(xml);
+            boolean inText = false;
+            // w:tab / w:br also appear as tab stops and settings in paragraph properties; only runs hold content
+            int runDepth = 0;
+            while (r.hasNext()) {
+                int event = r.next();
+                if (event == XMLStreamConstants.START_ELEMENT && W_NS.equals(r.getNamespaceURI())) {
+                    switch (r.getLocalName()) {
+                        case "r" -> runDepth++;
+                        case "t" -> inText = true;
+                        case "tab" -> {
+                            if (runDepth > 0) sb.append('\t');
+                        }
+                        case "br", "cr" -> {
+                            if (runDepth > 0) sb.append('\n');
+                        }
+                        default -> { }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && W_NS.equals(r.getNamespaceURI())) {
+                    switch (r.getLocalName()) {
+                        case "r" -> runDepth--;
+                        case "t" -> inText = false;
+                        case "p", "tr" -> sb.append('\n');
+                        case "tc" -> sb.append('\t');
+                        default -> { }
+                    }
+                } else if (inText && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                    sb.append(r.getText());
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed DOCX part: " + e.getMessage(), e);
+        } finally {
+            if (r != null) {
+                try {
+                    r.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.hng.docxtractor.startup;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Logs the slowest bean instantiations once the app is ready. The full timeline stays available
+ * on the actuator {@code startup} endpoint (it is read here without draining it).
+ * Durations include the beans each one pulled in.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupTimingReport {
+
+    private final ConfigurableApplicationContext context;
+
+    @Value("${startup.report.top:15}")
+    private int top;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        if (top <= 0 || !(context.getApplicationStartup() instanceof BufferingApplicationStartup startup)) return;
+        List<StartupTimeline.TimelineEvent> beans = startup.getBufferedTimeline().getEvents().stream()
+                .filter(e -> "spring.beans.instantiate".equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(top)
+                .toList();
+
+        StringBuilder sb = new StringBuilder("Started in ")
+                .append(event.getTimeTaken().toMillis()).append(" ms; slowest beans:");
+        for (StartupTimeline.TimelineEvent e : beans) {
+            sb.append("\n  ").append(String.format("%6d ms  ", e.getDuration().toMillis())).append(beanName(e));
+        }
+        log.info(sb.toString());
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent e) {
+        for (StartupStep.Tag tag : e.getStartupStep().getTags()) {
+            if ("beanName".equals(tag.getKey())) return tag.getValue();
+        }
+        return "?";
+    }
+}
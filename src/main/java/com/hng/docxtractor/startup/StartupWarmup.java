@@ -0,0 +1,86 @@
+package com.hng.docxtractor.startup;
+
+import com.hng.docxtractor.ocr.OcrService;
+import com.hng.docxtractor.service.impl.StreamingTikaExtractor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.font.FontMappers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Initializes the slow extraction libraries (Tika parsers, the PDFBox font cache, Tesseract's
+ * native library) in the background once the app has started, instead of on the first document.
+ * {@link WarmupHealthIndicator} exposes progress to readiness checks where that is enabled.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupWarmup {
+
+    private final StreamingTikaExtractor tikaExtractor;
+    private final OcrService ocrService;
+
+    @Value("${startup.warmup.enabled:true}")
+    private boolean enabled;
+
+    // in isolated mode documents are extracted in worker JVMs; the API process never loads these
+    @Value("${extraction.mode:in-process}")
+    private String extractionMode;
+
+    private final Map<String, Long> stepMillis = new LinkedHashMap<>();
+    private volatile boolean done;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled || "isolated".equalsIgnoreCase(extractionMode)) {
+            done = true;
+            return;
+        }
+        long started = System.currentTimeMillis();
+        step("tika", tikaExtractor::warmUp);
+        // first use scans system fonts (or reads the cache file) to build the substitution table
+        step("pdfbox-fonts", () -> FontMappers.instance().getFontBoxFont("Helvetica", null));
+        step("tesseract", ocrService::warmUp);
+        done = true;
+        log.info("Warm-up finished in {} ms {}", System.currentTimeMillis() - started, stepMillis);
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Duration of each finished step so far, in ms.
+     */
+    public Map<String, Long> stepMillis() {
+        synchronized (stepMillis) {
+            return new LinkedHashMap<>(stepMillis);
+        }
+    }
+
+    private void step(String name, WarmupStep step) {
+        long t0 = System.currentTimeMillis();
+        try {
+            step.run();
+        } catch (Exception | LinkageError e) {
+            // a failed warm-up only means the first real request pays for it
+            log.warn("Warm-up of {} failed: {}", name, e.getMessage());
+        }
+        synchronized (stepMillis) {
+            stepMillis.put(name, System.currentTimeMillis() - t0);
+        }
+    }
+
+    @FunctionalInterface
+    private interface WarmupStep {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hng.docxtractor.startup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * OUT_OF_SERVICE until {@link StartupWarmup} has finished, so a readiness group that includes
+ * {@code warmup} only sends traffic to warm replicas. Registered only where
+ * {@code startup.warmup.readiness=true} (the faststart profile): as a plain contributor it would
+ * also turn the overall /actuator/health OUT_OF_SERVICE during every warm-up.
+ */
+@Component("warmup")
+@ConditionalOnProperty(name = "startup.warmup.readiness", havingValue = "true")
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final StartupWarmup warmup;
+
+    @Override
+    public Health health() {
+        Health.Builder b = warmup.isDone() ? Health.up() : Health.outOfService();
+        warmup.stepMillis().forEach((k, v) -> b.withDetail(k + "Ms", v));
+        return b.build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.hng.docxtractor.util;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Keeps outbound calls to caller-supplied URLs (webhooks) off the internal network: loopback,
+ * link-local (incl. 169.254.169.254 metadata), private, unique-local, carrier-grade NAT,
+ * unspecified and multicast addresses are refused.
+ */
+public final class PublicAddressGuard {
+
+    private PublicAddressGuard() {
+    }
+
+    /**
+     * Resolve {@code host}; fails if it doesn't resolve or if any of its addresses is not public,
+     * so a name with one public and one internal record can't be used either.
+     */
+    public static InetAddress[] resolvePublic(String host) throws UnknownHostException {
+        InetAddress[] addresses = InetAddress.getAllByName(host);
+        for (InetAddress a : addresses) {
+            if (!isPublic(a))
+                throw new UnknownHostException(host + " resolves to non-public address " + a.getHostAddress());
+        }
+        return addresses;
+    }
+
+    public static boolean isPublic(InetAddress a) {
+        if (a.isAnyLocalAddress() || a.isLoopbackAddress() || a.isLinkLocalAddress()
+                || a.isSiteLocalAddress() || a.isMulticastAddress()) return false;
+        byte[] b = a.getAddress();
+        if (a instanceof Inet4Address) {
+            int first = b[0] & 0xff, second = b[1] & 0xff;
+            if (first == 0) return false;                                    // 0.0.0.0/8
+            if (first == 100 && second >= 64 && second < 128) return false;  // 100.64.0.0/10
+            if (first == 198 && (second == 18 || second == 19)) return false; // 198.18.0.0/15
+            return first < 240;                                             // 240.0.0.0/4, broadcast
+        }
+        if (a instanceof Inet6Address) {
+            if ((b[0] & 0xfe) == 0xfc) return false; // fc00::/7 unique-local
+            // IPv4-compatible / NAT64 forms would smuggle an IPv4 target past the checks above
+            boolean embedsV4 = true;
+            for (int i = 0; i < 10; i++) embedsV4 &= b[i] == 0;
+            if (embedsV4 || (b[0] == 0x00 && b[1] == 0x64 && b[2] == (byte) 0xff && b[3] == (byte) 0x9b)) {
+                try {
+                    return isPublic(InetAddress.getByAddress(new byte[]{b[12], b[13], b[14], b[15]}));
+                } catch (UnknownHostException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+package com.hng.docxtractor.worker;
+
+import com.hng.docxtractor.ocr.OcrImagePreprocessor;
+import com.hng.docxtractor.ocr.OcrTier;
+import com.hng.docxtractor.ocr.TessOcrServiceImpl;
+import com.hng.docxtractor.service.TextExtractionService;
+import com.hng.docxtractor.service.impl.StreamingTikaExtractor;
+import com.hng.docxtractor.service.impl.TextExtractionServiceImpl;
+import com.hng.docxtractor.util.PathMultipartFile;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of a forked extraction worker JVM. Boots only the extraction beans (no web
+ * server, JPA or search index), connects back to the API process on the loopback port it was
+ * given, authenticates with its one-time token and then serves requests one at a time until
+ * the parent closes the connection or kills it.
+ * <p>
+ * Usage: {@code ExtractionWorkerMain <port> <token> [spring args...]}
+ */
+public final class ExtractionWorkerMain {
+
+    private ExtractionWorkerMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        String token = args[1];
+        String[] springArgs = Arrays.copyOfRange(args, 2, args.length);
+
+        ConfigurableApplicationContext ctx = new SpringApplicationBuilder(WorkerConfig.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties("extraction.mode=in-process")
+                .run(springArgs);
+        TextExtractionService extraction = ctx.getBean(TextExtractionService.class);
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            WorkerProtocol.writeString(out, token);
+            out.flush();
+
+            while (true) {
+                WorkerProtocol.Request req;
+                try {
+                    req = WorkerProtocol.readRequest(in);
+                } catch (EOFException eof) {
+                    break; // parent is retiring this worker
+                }
+                try {
+                    PathMultipartFile file = new PathMultipartFile(Path.of(req.path()), req.originalFilename(), req.contentType());
+                    OcrTier tier = OcrTier.parse(req.ocrTier());
+                    switch (req.op()) {
+                        case WorkerProtocol.SPLIT -> {
+                            TextExtractionService.PdfSplit split =
+                                    extraction.splitPdf(file, req.pagesPerSlice(), Path.of(req.sliceDir()));
+                            WorkerProtocol.writeResult(out, split.textLayer(),
+                                    split.ocrSlices().stream().map(Path::toString).toList());
+                        }
+                        case WorkerProtocol.OCR -> WorkerProtocol.writeResult(out, extraction.ocrPdf(file, tier), List.of());
+                        default -> WorkerProtocol.writeResult(out, extraction.extractText(file, tier), List.of());
+                    }
+                } catch (Exception e) {
+                    WorkerProtocol.writeError(out, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+                }
+            }
+        } finally {
+            ctx.close();
+        }
+        System.exit(0);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @Import({TextExtractionServiceImpl.class, StreamingTikaExtractor.class,
+            TessOcrServiceImpl.class, OcrImagePreprocessor.class})
+    static class WorkerConfig {
+    }
+}
@@ -0,0 +1,329 @@
+package com.hng.docxtractor.worker;
+
+import com.hng.docxtractor.exception.ApiException;
+import com.hng.docxtractor.exception.ServiceBusyException;
+import com.hng.docxtractor.ocr.OcrTier;
+import com.hng.docxtractor.service.TextExtractionService;
+import com.hng.docxtractor.service.TextExtractionService.PdfSplit;
+import com.hng.docxtractor.service.TextExtractionService.TextExtractionResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Pool of forked extraction JVMs. Each worker handles one document at a time under its own
+ * -Xmx, so a decompression bomb or a native Tesseract crash takes down a worker, never the API.
+ * <p>
+ * Workers connect back over a loopback socket and authenticate with a one-time token. A
+ * document that exceeds the wall-clock budget (or whose caller is interrupted) gets its worker
+ * killed; workers are also retired after a fixed number of jobs so native/heap leaks can't build up.
+ */
+@Component
+@ConditionalOnProperty(name = "extraction.mode", havingValue = "isolated")
+@RequiredArgsConstructor
+@Slf4j
+public class ExtractionWorkerPool {
+
+    private static final String BOOT_LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+    // a worker writes its token as soon as it connects; a peer that stays silent longer is dropped
+    private static final int HANDSHAKE_TIMEOUT_MS = 5000;
+
+    private final Environment environment;
+
+    @Value("${extraction.worker.count:0}")
+    private int configuredCount;
+
+    @Value("${extraction.worker.max-heap:512m}")
+    private String maxHeap;
+
+    @Value("${extraction.worker.timeout-ms:120000}")
+    private long timeoutMs;
+
+    @Value("${extraction.worker.max-jobs:200}")
+    private int maxJobsPerWorker;
+
+    @Value("${extraction.worker.startup-timeout-ms:60000}")
+    private long startupTimeoutMs;
+
+    @Value("${extraction.worker.jvm-args:}")
+    private String extraJvmArgs;
+
+    @Value("${extraction.admission-timeout-ms:30000}")
+    private long admissionTimeoutMs;
+
+    private ServerSocket server;
+    private Semaphore slots;
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private final Set<Worker> all = ConcurrentHashMap.newKeySet();
+    private final Map<String, CompletableFuture<Socket>> handshakes = new ConcurrentHashMap<>();
+    // socket I/O runs here so the calling thread can wait with a deadline and react to interrupts
+    private final ExecutorService io = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "extraction-worker-io");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile boolean closed;
+
+    @PostConstruct
+    public void init() throws IOException {
+        int count = configuredCount > 0 ? configuredCount : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        slots = new Semaphore(count, true);
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "extraction-worker-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Extraction worker pool: up to {} workers, -Xmx{}, {} ms per document, recycle after {} jobs",
+                count, maxHeap, timeoutMs, maxJobsPerWorker);
+    }
+
+    /**
+     * Extract a file already on local disk in a worker process.
+     */
+    public TextExtractionResult extract(Path file, String originalFilename, String contentType, OcrTier tier) throws Exception {
+        return run(new WorkerProtocol.Request(WorkerProtocol.EXTRACT, file.toAbsolutePath().toString(),
+                originalFilename, contentType, tierName(tier), 0, null)).result();
+    }
+
+    /**
+     * {@link TextExtractionService#splitPdf} in a worker process; the slices are written to {@code sliceDir}.
+     */
+    public PdfSplit splitPdf(Path file, String originalFilename, String contentType, int pagesPerSlice,
+                             Path sliceDir) throws Exception {
+        WorkerProtocol.Response res = run(new WorkerProtocol.Request(WorkerProtocol.SPLIT, file.toAbsolutePath().toString(),
+                originalFilename, contentType, null, pagesPerSlice, sliceDir.toAbsolutePath().toString()));
+        return new PdfSplit(res.result(), res.slices().stream().map(Path::of).toList());
+    }
+
+    /**
+     * {@link TextExtractionService#ocrPdf} in a worker process.
+     */
+    public TextExtractionResult ocrPdf(Path file, String originalFilename, String contentType, OcrTier tier) throws Exception {
+        return run(new WorkerProtocol.Request(WorkerProtocol.OCR, file.toAbsolutePath().toString(),
+                originalFilename, contentType, tierName(tier), 0, null)).result();
+    }
+
+    private static String tierName(OcrTier tier) {
+        return tier == null ? null : tier.name();
+    }
+
+    private WorkerProtocol.Response run(WorkerProtocol.Request req) throws Exception {
+        String originalFilename = req.originalFilename();
+        if (!slots.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new ServiceBusyException("All extraction workers are busy. Please retry shortly.");
+        }
+        Worker worker = null;
+        boolean healthy = false;
+        try {
+            worker = borrow();
+            Worker w = worker;
+            Future<WorkerProtocol.Response> call = io.submit(() -> w.call(req));
+            try {
+                WorkerProtocol.Response res = call.get(timeoutMs, TimeUnit.MILLISECONDS);
+                healthy = true;
+                return res;
+            } catch (TimeoutException e) {
+                log.warn("Extraction of {} exceeded {} ms; killing worker {}", originalFilename, timeoutMs, w.pid());
+                throw new ApiException("Extraction timed out after " + timeoutMs + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.info("Extraction of {} cancelled; killing worker {}", originalFilename, w.pid());
+                throw e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof WorkerProtocol.WorkerFailureException failure) {
+                    healthy = true; // the document failed, the worker is fine
+                    throw new ApiException("Extraction failed: " + failure.getMessage());
+                }
+                log.warn("Extraction worker {} died on {} (exit {}): {}", w.pid(), originalFilename,
+                        w.exitCode(), e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+                throw new ApiException("Extraction failed: worker crashed (out of memory or native failure)");
+            }
+        } finally {
+            if (worker != null) giveBack(worker, healthy);
+            slots.release();
+        }
+    }
+
+    private Worker borrow() throws IOException, InterruptedException {
+        Worker w;
+        while ((w = idle.poll()) != null) {
+            if (w.isAlive()) return w;
+            retire(w);
+        }
+        return spawn();
+    }
+
+    private void giveBack(Worker w, boolean healthy) {
+        if (healthy && !closed && w.isAlive() && w.jobs < maxJobsPerWorker) {
+            idle.offer(w);
+        } else {
+            retire(w);
+        }
+    }
+
+    private Worker spawn() throws IOException, InterruptedException {
+        String token = UUID.randomUUID().toString();
+        CompletableFuture<Socket> connected = new CompletableFuture<>();
+        handshakes.put(token, connected);
+        Process process = new ProcessBuilder(command(token))
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            Socket socket = connected.get(startupTimeoutMs, TimeUnit.MILLISECONDS);
+            Worker w = new Worker(process, socket);
+            all.add(w);
+            log.debug("Started extraction worker {}", process.pid());
+            return w;
+        } catch (TimeoutException | ExecutionException e) {
+            process.destroyForcibly();
+            throw new IOException("Extraction worker did not start within " + startupTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            throw e;
+        } finally {
+            handshakes.remove(token);
+        }
+    }
+
+    private List<String> command(String token) {
+        String javaBin = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("java.class.path");
+
+        List<String> cmd = new ArrayList<>();
+        cmd.add(javaBin);
+        cmd.add("-Xmx" + maxHeap);
+        cmd.add("-XX:+ExitOnOutOfMemoryError");
+        if (!extraJvmArgs.isBlank()) cmd.addAll(Arrays.asList(extraJvmArgs.trim().split("\\s+")));
+        cmd.add("-cp");
+        cmd.add(classpath);
+        if (!classpath.contains(File.pathSeparator) && classpath.endsWith(".jar")
+                && ClassUtils.isPresent(BOOT_LAUNCHER, getClass().getClassLoader())) {
+            // running from the Boot fat jar: let its launcher set up BOOT-INF/lib, then call our main
+            // (an extracted jar, as in the CDS image, lists its libs in the manifest Class-Path instead)
+            cmd.add("-Dloader.main=" + ExtractionWorkerMain.class.getName());
+            cmd.add(BOOT_LAUNCHER);
+        } else {
+            cmd.add(ExtractionWorkerMain.class.getName());
+        }
+        cmd.add(String.valueOf(server.getLocalPort()));
+        cmd.add(token);
+        String[] profiles = environment.getActiveProfiles();
+        if (profiles.length > 0) cmd.add("--spring.profiles.active=" + String.join(",", profiles));
+        return cmd;
+    }
+
+    // only accepts; the token is read on an io thread, so a slow or silent peer can't hold up other workers
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket s = server.accept();
+                try {
+                    io.execute(() -> handshake(s));
+                } catch (RejectedExecutionException e) {
+                    s.close(); // shutting down
+                }
+            } catch (SocketException e) {
+                if (!closed) log.warn("Extraction worker acceptor: {}", e.getMessage());
+            } catch (Throwable e) {
+                // anything escaping here would stop the pool from ever starting another worker
+                log.warn("Extraction worker acceptor: {}", e.toString());
+            }
+        }
+    }
+
+    private void handshake(Socket s) {
+        try {
+            s.setTcpNoDelay(true);
+            s.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+            String token = WorkerProtocol.readToken(new DataInputStream(s.getInputStream()));
+            CompletableFuture<Socket> pending = token == null ? null : handshakes.remove(token);
+            if (pending == null) {
+                s.close(); // unknown peer
+            } else {
+                s.setSoTimeout(0);
+                pending.complete(s);
+            }
+        } catch (Throwable e) {
+            log.debug("Rejected extraction worker connection: {}", e.toString());
+            try {
+                s.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void retire(Worker w) {
+        all.remove(w);
+        w.kill();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        for (Worker w : all) w.kill();
+        all.clear();
+        idle.clear();
+        io.shutdownNow();
+        try {
+            server.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static final class Worker {
+        private final Process process;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private int jobs;
+
+        Worker(Process process, Socket socket) throws IOException {
+            this.process = process;
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        WorkerProtocol.Response call(WorkerProtocol.Request req) throws IOException {
+            jobs++;
+            WorkerProtocol.writeRequest(out, req);
+            return WorkerProtocol.readResult(in);
+        }
+
+        boolean isAlive() {
+            return process.isAlive() && !socket.isClosed();
+        }
+
+        long pid() {
+            return process.pid();
+        }
+
+        String exitCode() {
+            return process.isAlive() ? "running" : String.valueOf(process.exitValue());
+        }
+
+        // closing the socket also unblocks any io thread still waiting on this worker
+        void kill() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.hng.docxtractor.worker;
+
+import com.hng.docxtractor.service.TextExtractionService.TextExtractionResult;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Length-prefixed binary messages exchanged between the API process and extraction workers
+ * over a loopback socket. The document itself is never sent; both sides share the local disk.
+ */
+final class WorkerProtocol {
+
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    // what a request asks for: TextExtractionService.extractText, splitPdf or ocrPdf
+    static final byte EXTRACT = 0;
+    static final byte SPLIT = 1;
+    static final byte OCR = 2;
+    // the handshake token is a UUID; anything longer is not one of our workers
+    static final int MAX_TOKEN_BYTES = 64;
+
+    private WorkerProtocol() {
+    }
+
+    /**
+     * pagesPerSlice/sliceDir are only used by {@link #SPLIT}.
+     */
+    record Request(byte op, String path, String originalFilename, String contentType, String ocrTier,
+                   int pagesPerSlice, String sliceDir) {
+    }
+
+    /**
+     * @param slices split files written by a {@link #SPLIT} request; empty otherwise
+     */
+    record Response(TextExtractionResult result, List<String> slices) {
+    }
+
+    static void writeRequest(DataOutputStream out, Request req) throws IOException {
+        out.writeByte(req.op());
+        writeString(out, req.path());
+        writeString(out, req.originalFilename());
+        writeString(out, req.contentType());
+        writeString(out, req.ocrTier());
+        out.writeInt(req.pagesPerSlice());
+        writeString(out, req.sliceDir());
+        out.flush();
+    }
+
+    static Request readRequest(DataInputStream in) throws IOException {
+        return new Request(in.readByte(), readString(in), readString(in), readString(in), readString(in),
+                in.readInt(), readString(in));
+    }
+
+    static void writeResult(DataOutputStream out, TextExtractionResult res, List<String> slices) throws IOException {
+        out.writeByte(OK);
+        writeString(out, res.text);
+        out.writeBoolean(res.containsImages);
+        out.writeInt(res.imageCount);
+        out.writeInt(slices.size());
+        for (String slice : slices) writeString(out, slice);
+        out.flush();
+    }
+
+    static void writeError(DataOutputStream out, String message) throws IOException {
+        out.writeByte(ERROR);
+        writeString(out, message);
+        out.flush();
+    }
+
+    /**
+     * @throws WorkerFailureException if the worker reported an error for this document
+     */
+    static Response readResult(DataInputStream in) throws IOException {
+        byte status = in.readByte();
+        if (status == ERROR) throw new WorkerFailureException(readString(in));
+        String text = readString(in);
+        boolean containsImages = in.readBoolean();
+        int imageCount = in.readInt();
+        int n = in.readInt();
+        List<String> slices = new ArrayList<>(Math.max(0, Math.min(n, 1024)));
+        for (int i = 0; i < n; i++) slices.add(readString(in));
+        return new Response(new TextExtractionResult(text == null ? "" : text, containsImages, imageCount), slices);
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        return readString(in, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads the worker's handshake token without trusting the peer's length prefix.
+     */
+    static String readToken(DataInputStream in) throws IOException {
+        return readString(in, MAX_TOKEN_BYTES);
+    }
+
+    private static String readString(DataInputStream in, int maxBytes) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        if (len > maxBytes) throw new IOException("String of " + len + " bytes exceeds " + maxBytes);
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The worker is healthy but extraction of this document failed.
+     */
+    static final class WorkerFailureException extends IOException {
+        WorkerFailureException(String message) {
+            super(message);
+        }
+    }
+}
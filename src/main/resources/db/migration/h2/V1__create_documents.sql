@@ -0,0 +1,19 @@
+-- Baseline schema (what ddl-auto=update used to create).
+-- Existing H2 files are baselined at version 1, so this only runs on a fresh database.
+create table if not exists documents (
+    id                 uuid         not null primary key,
+    original_file_name varchar(255),
+    storage_path       varchar(255),
+    content_type       varchar(255),
+    size_bytes         bigint,
+    extracted_text     clob,
+    contains_images    boolean      not null,
+    image_count        integer      not null,
+    analyzed           boolean      not null,
+    document_type      varchar(255),
+    summary            clob,
+    metadata_json      clob,
+    status             varchar(32)  not null,
+    viewed             boolean      not null,
+    created_at         timestamp(6) with time zone
+);
@@ -0,0 +1,4 @@
+-- databases created by ddl-auto may have status as an H2 enum of the original four values
+alter table documents alter column status set data type varchar(32);
+alter table documents add column if not exists client_id varchar(128);
+alter table documents add column if not exists ocr_tier varchar(16);
@@ -0,0 +1,28 @@
+alter table documents add column if not exists callback_url varchar(2048);
+
+create table if not exists webhook_subscriptions (
+    id         uuid          not null primary key,
+    client_id  varchar(128)  not null,
+    url        varchar(2048) not null,
+    created_at timestamp(6) with time zone
+);
+create index if not exists idx_webhook_subscriptions_client on webhook_subscriptions (client_id);
+
+-- transactional outbox: rows are written in the same transaction that finishes the analysis
+create table if not exists webhook_outbox (
+    id               uuid          not null primary key,
+    document_id      uuid          not null,
+    subscription_id  uuid,
+    url              varchar(2048) not null,
+    event            varchar(64)   not null,
+    payload          clob          not null,
+    status           varchar(16)   not null,
+    attempts         integer       not null,
+    next_attempt_at  timestamp(6) with time zone not null,
+    lease_owner      varchar(128),
+    lease_expires_at timestamp(6) with time zone,
+    last_error       varchar(1024),
+    created_at       timestamp(6) with time zone,
+    delivered_at     timestamp(6) with time zone
+);
+create index if not exists idx_webhook_outbox_due on webhook_outbox (status, next_attempt_at);
@@ -0,0 +1,17 @@
+create table if not exists documents (
+    id                 uuid         not null primary key,
+    original_file_name varchar(255),
+    storage_path       varchar(255),
+    content_type       varchar(255),
+    size_bytes         bigint,
+    extracted_text     text,
+    contains_images    boolean      not null,
+    image_count        integer      not null,
+    analyzed           boolean      not null,
+    document_type      varchar(255),
+    summary            text,
+    metadata_json      text,
+    status             varchar(32)  not null,
+    viewed             boolean      not null,
+    created_at         timestamp(6) with time zone
+);
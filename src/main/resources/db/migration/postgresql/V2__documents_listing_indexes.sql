@@ -0,0 +1,2 @@
+create index if not exists idx_documents_status_created on documents (status, created_at, id);
+create index if not exists idx_documents_created on documents (created_at, id);
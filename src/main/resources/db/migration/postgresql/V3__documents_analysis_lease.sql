@@ -0,0 +1,3 @@
+alter table documents add column if not exists lease_owner varchar(128);
+alter table documents add column if not exists lease_expires_at timestamp(6) with time zone;
+create index if not exists idx_documents_status_lease on documents (status, lease_expires_at);
@@ -0,0 +1,2 @@
+alter table documents add column if not exists client_id varchar(128);
+alter table documents add column if not exists ocr_tier varchar(16);
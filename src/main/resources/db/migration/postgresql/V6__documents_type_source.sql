@@ -0,0 +1,2 @@
+-- 'llm' or 'classifier'; the local classifier only trains on LLM-labelled rows
+alter table documents add column if not exists document_type_source varchar(16);
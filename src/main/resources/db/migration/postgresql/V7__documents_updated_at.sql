@@ -0,0 +1,4 @@
+-- change feed for the per-replica search index
+alter table documents add column if not exists updated_at timestamp(6) with time zone;
+update documents set updated_at = coalesce(created_at, current_timestamp) where updated_at is null;
+create index if not exists idx_documents_updated on documents (updated_at, id);
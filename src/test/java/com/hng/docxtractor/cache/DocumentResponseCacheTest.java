@@ -0,0 +1,106 @@
+package com.hng.docxtractor.cache;
+
+import com.hng.docxtractor.controller.DocumentController;
+import com.hng.docxtractor.dto.DocumentDetailsDto;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.service.DocumentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DocumentResponseCacheTest {
+
+    private final UUID id = UUID.randomUUID();
+    private DocumentResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DocumentResponseCache();
+        ReflectionTestUtils.setField(cache, "maxBytes", 1_048_576L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(10));
+    }
+
+    @Test
+    void completedDocumentIsCachedWithAStrongEtag() throws Exception {
+        DocumentResponseCache.Entry entry = cache.render(doc(DocumentStatus.COMPLETED, "summary"), cache.stamp());
+
+        assertTrue(entry.etag().startsWith("\"") && entry.etag().endsWith("\""));
+        assertSame(entry, cache.get(id).orElseThrow());
+        assertEquals(entry.etag(), cache.render(doc(DocumentStatus.COMPLETED, "summary"), cache.stamp()).etag());
+        assertNotEquals(entry.etag(), cache.render(doc(DocumentStatus.COMPLETED, "other"), cache.stamp()).etag());
+    }
+
+    @Test
+    void onlyCompletedDocumentsAreCached() throws Exception {
+        cache.render(doc(DocumentStatus.PROCESSING, null), cache.stamp());
+
+        assertTrue(cache.get(id).isEmpty());
+    }
+
+    @Test
+    void ifNoneMatchAcceptsListsWeakTagsAndWildcard() throws Exception {
+        DocumentResponseCache.Entry entry = cache.render(doc(DocumentStatus.COMPLETED, "summary"), cache.stamp());
+
+        assertTrue(entry.matches(entry.etag()));
+        assertTrue(entry.matches("\"other\", W/" + entry.etag()));
+        assertTrue(entry.matches("*"));
+        assertFalse(entry.matches("\"other\""));
+        assertFalse(entry.matches(null));
+    }
+
+    @Test
+    void invalidateDropsTheEntry() throws Exception {
+        cache.render(doc(DocumentStatus.COMPLETED, "summary"), cache.stamp());
+        cache.invalidate(id);
+
+        assertTrue(cache.get(id).isEmpty());
+    }
+
+    @Test
+    void bodyLoadedBeforeAnInvalidationIsNotCached() throws Exception {
+        long stamp = cache.stamp();
+        DocumentDetailsDto stale = doc(DocumentStatus.COMPLETED, "summary");
+        // a re-analysis starts while the GET is still rendering what it read
+        cache.invalidate(id);
+        DocumentResponseCache.Entry entry = cache.render(stale, stamp);
+
+        assertNotNull(entry.body());
+        assertTrue(cache.get(id).isEmpty());
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWith304WithoutTheDb() throws Exception {
+        DocumentService documentService = mock(DocumentService.class);
+        when(documentService.getDocument(id)).thenReturn(doc(DocumentStatus.COMPLETED, "summary"));
+        DocumentController controller = new DocumentController(documentService, null, null, null, cache, null, null);
+
+        ResponseEntity<byte[]> first = controller.get(id, null);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+
+        ResponseEntity<byte[]> second = controller.get(id, etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        assertEquals(etag, second.getHeaders().getETag());
+        assertNull(second.getBody());
+        verify(documentService, times(1)).getDocument(id);
+    }
+
+    private DocumentDetailsDto doc(DocumentStatus status, String summary) {
+        return DocumentDetailsDto.builder()
+                .id(id)
+                .fileName("invoice.pdf")
+                .status(status)
+                .documentType("invoice")
+                .summary(summary)
+                .build();
+    }
+}
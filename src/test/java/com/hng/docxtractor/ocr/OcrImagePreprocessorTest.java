@@ -0,0 +1,68 @@
+package com.hng.docxtractor.ocr;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrImagePreprocessorTest {
+
+    private final OcrImagePreprocessor preprocessor = new OcrImagePreprocessor();
+
+    @Test
+    void otsuSplitsABimodalImageBetweenInkAndPaper() {
+        BufferedImage img = new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] px = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < px.length; i++) px[i] = (byte) (i < 30 ? 40 : 200);
+
+        int t = preprocessor.otsuThreshold(img);
+
+        assertTrue(t >= 40 && t < 200, "threshold " + t);
+    }
+
+    @Test
+    void skewOfRuledLinesIsFoundInBothDirections() {
+        for (double degrees : new double[]{0, 2, -3, 4.5}) {
+            assertEquals(degrees, preprocessor.estimateSkew(ruledPage(degrees), 0.25), 0.25, "at " + degrees);
+        }
+    }
+
+    @Test
+    void nearlyBlankPageIsNotRotated() {
+        assertEquals(0, preprocessor.estimateSkew(ruledPage(Double.NaN), 0.5));
+    }
+
+    @Test
+    void prepareCropsToTheInkAndBinarizes() {
+        BufferedImage out = preprocessor.prepare(ruledPage(0), OcrTier.FAST, 0);
+
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, out.getType());
+        assertTrue(out.getWidth() < 800 && out.getHeight() < 600);
+        for (byte b : ((DataBufferByte) out.getRaster().getDataBuffer()).getData()) {
+            assertTrue(b == 0 || b == (byte) 255);
+        }
+    }
+
+    // horizontal rules every 30px, tilted by the given angle; NaN draws nothing
+    private static BufferedImage ruledPage(double degrees) {
+        int w = 800, h = 600;
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+            if (Double.isNaN(degrees)) return img;
+            g.setColor(Color.BLACK);
+            double tan = Math.tan(Math.toRadians(degrees));
+            for (int y0 = 60; y0 < h - 60; y0 += 30) {
+                for (int x = 50; x < w - 50; x++) g.fillRect(x, (int) Math.round(y0 + x * tan), 1, 3);
+            }
+        } finally {
+            g.dispose();
+        }
+        return img;
+    }
+}
@@ -0,0 +1,184 @@
+package com.hng.docxtractor.repo;
+
+import com.hng.docxtractor.dto.DocumentSummaryDto;
+import com.hng.docxtractor.entity.Document;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class DocumentRepositoryTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired
+    private DocumentRepository repo;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void keysetPagesVisitEveryRowOnceInOrder() {
+        List<UUID> ids = new ArrayList<>();
+        // two rows share each timestamp, so the id tiebreaker matters
+        for (int i = 0; i < 7; i++) ids.add(insert(T0.plusSeconds(i / 2), DocumentStatus.PENDING));
+
+        List<DocumentSummaryDto> seen = new ArrayList<>();
+        KeysetCursor after = null;
+        List<DocumentSummaryDto> page;
+        do {
+            page = repo.findPage(null, null, after, true, 3);
+            seen.addAll(page);
+            if (!page.isEmpty()) {
+                DocumentSummaryDto last = page.get(page.size() - 1);
+                after = new KeysetCursor(last.getCreatedAt(), last.getId());
+            }
+        } while (page.size() == 3);
+
+        assertEquals(7, seen.size());
+        assertEquals(7, seen.stream().map(DocumentSummaryDto::getId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            assertFalse(seen.get(i).getCreatedAt().isBefore(seen.get(i - 1).getCreatedAt()), "rows out of order at " + i);
+        }
+    }
+
+    @Test
+    void descendingPageStartsAfterCursorAndFiltersByStatus() {
+        insert(T0, DocumentStatus.FAILED);
+        UUID middle = insert(T0.plusSeconds(1), DocumentStatus.FAILED);
+        insert(T0.plusSeconds(2), DocumentStatus.FAILED);
+        insert(T0.plusSeconds(3), DocumentStatus.COMPLETED);
+
+        List<DocumentSummaryDto> page = repo.findPage(DocumentStatus.FAILED, null,
+                new KeysetCursor(T0.plusSeconds(2), new UUID(0, 0)), false, 10);
+
+        assertEquals(2, page.size());
+        assertEquals(middle, page.get(0).getId());
+    }
+
+    @Test
+    void onlyOneClaimWinsUntilTheLeaseExpires() {
+        UUID id = insert(T0, DocumentStatus.PENDING);
+        Instant now = Instant.now();
+        List<DocumentStatus> claimable = List.of(DocumentStatus.PENDING, DocumentStatus.FAILED);
+
+        assertEquals(1, repo.claim(id, "a", now.plusSeconds(600), now, DocumentStatus.PROCESSING, claimable));
+        assertEquals(0, repo.claim(id, "b", now.plusSeconds(600), now, DocumentStatus.PROCESSING, claimable));
+
+        // once the lease has run out, another worker may take over; the first owner can't complete any more
+        Instant later = now.plusSeconds(601);
+        assertEquals(1, repo.claim(id, "b", later.plusSeconds(600), later, DocumentStatus.PROCESSING, claimable));
+        assertEquals(0, repo.completeLease(id, "a", DocumentStatus.COMPLETED, "invoice", "llm", "s", "{}", true, now));
+        assertEquals(1, repo.completeLease(id, "b", DocumentStatus.COMPLETED, "invoice", "llm", "s", "{}", true, now));
+    }
+
+    @Test
+    void renewalKeepsTheLeaseFromBeingRequeued() {
+        UUID id = insert(T0, DocumentStatus.PENDING);
+        Instant now = Instant.now();
+        repo.claim(id, "a", now.plusSeconds(60), now, DocumentStatus.PROCESSING, List.of(DocumentStatus.PENDING));
+
+        assertEquals(1, repo.renewLease(id, "a", now.plusSeconds(600)));
+        assertEquals(0, repo.renewLease(id, "b", now.plusSeconds(600)));
+        assertTrue(repo.findExpiredLeaseIds(now.plusSeconds(120), DocumentStatus.PROCESSING).isEmpty());
+        assertEquals(List.of(id), repo.findExpiredLeaseIds(now.plusSeconds(601), DocumentStatus.PROCESSING));
+    }
+
+    @Test
+    void staleUploadsAndStalledExtractionsFailButAreNeverClaimable() {
+        Instant now = Instant.now();
+        UUID abandoned = insert(now.minusSeconds(7200), DocumentStatus.AWAITING_UPLOAD);
+        UUID fresh = insert(now.minusSeconds(60), DocumentStatus.AWAITING_UPLOAD);
+        UUID stalled = insert(now.minusSeconds(60), DocumentStatus.AWAITING_UPLOAD);
+        UUID running = insert(now.minusSeconds(60), DocumentStatus.AWAITING_UPLOAD);
+        List<DocumentStatus> completable = List.of(DocumentStatus.AWAITING_UPLOAD);
+        assertEquals(1, repo.startExtraction(stalled, completable, DocumentStatus.EXTRACTING, "r1", now.minusSeconds(1), now));
+        assertEquals(1, repo.startExtraction(running, completable, DocumentStatus.EXTRACTING, "r2", now.plusSeconds(600), now));
+        assertEquals(0, repo.startExtraction(running, completable, DocumentStatus.EXTRACTING, "r3", now.plusSeconds(600), now));
+
+        Instant uploadDeadline = now.minusSeconds(3600);
+        List<UUID> stale = repo.findStaleUploadIds(now, uploadDeadline, DocumentStatus.AWAITING_UPLOAD, DocumentStatus.EXTRACTING);
+        assertEquals(2, stale.size());
+        assertTrue(stale.containsAll(List.of(abandoned, stalled)));
+        assertEquals(2, repo.failStaleUploads(List.of(abandoned, fresh, stalled, running), now, uploadDeadline,
+                DocumentStatus.AWAITING_UPLOAD, DocumentStatus.EXTRACTING, DocumentStatus.EXTRACTION_FAILED));
+
+        assertEquals(DocumentStatus.EXTRACTION_FAILED, repo.findById(stalled).orElseThrow().getStatus());
+        assertEquals(DocumentStatus.AWAITING_UPLOAD, repo.findById(fresh).orElseThrow().getStatus());
+        assertEquals(DocumentStatus.EXTRACTING, repo.findById(running).orElseThrow().getStatus());
+        assertEquals(0, repo.claim(abandoned, "a", now.plusSeconds(600), now, DocumentStatus.PROCESSING,
+                List.of(DocumentStatus.PENDING, DocumentStatus.FAILED)));
+    }
+
+    @Test
+    void onlyTheCurrentExtractionRunRecordsItsOutcome() {
+        Instant now = Instant.now();
+        UUID id = insert(now, DocumentStatus.AWAITING_UPLOAD);
+        List<DocumentStatus> completable = List.of(DocumentStatus.AWAITING_UPLOAD, DocumentStatus.EXTRACTION_FAILED);
+        repo.startExtraction(id, completable, DocumentStatus.EXTRACTING, "first", now.minusSeconds(1), now);
+        // the reaper gives up on the first run and the client retries complete-upload
+        repo.failStaleUploads(List.of(id), now, now.minusSeconds(3600),
+                DocumentStatus.AWAITING_UPLOAD, DocumentStatus.EXTRACTING, DocumentStatus.EXTRACTION_FAILED);
+        assertEquals(0, repo.completeExtraction(id, "first", DocumentStatus.EXTRACTING, DocumentStatus.PENDING,
+                "late", false, 0, now));
+        repo.startExtraction(id, completable, DocumentStatus.EXTRACTING, "second", now.plusSeconds(600), now);
+
+        assertEquals(0, repo.completeExtraction(id, "first", DocumentStatus.EXTRACTING, DocumentStatus.PENDING,
+                "late", false, 0, now));
+        assertEquals(1, repo.completeExtraction(id, "second", DocumentStatus.EXTRACTING, DocumentStatus.PENDING,
+                "fresh", true, 2, now));
+
+        Document doc = repo.findById(id).orElseThrow();
+        assertEquals(DocumentStatus.PENDING, doc.getStatus());
+        assertEquals("fresh", doc.getExtractedText());
+        assertEquals(2, doc.getImageCount());
+        assertNull(doc.getLeaseOwner());
+        assertNull(doc.getLeaseExpiresAt());
+    }
+
+    @Test
+    void changeFeedPagesInUpdateOrderAndSeesBulkUpdates() {
+        Instant now = Instant.now();
+        UUID first = insert(T0, DocumentStatus.PENDING);
+        UUID second = insert(T0, DocumentStatus.PENDING);
+        Instant since = repo.findById(second).orElseThrow().getUpdatedAt();
+
+        assertEquals(1, repo.transition(first, DocumentStatus.PENDING, DocumentStatus.PROCESSING, now.plusSeconds(60)));
+
+        List<Document> changed = repo.findUpdatedSince(since, second, PageRequest.of(0, 10));
+        assertEquals(List.of(first), changed.stream().map(Document::getId).toList());
+        assertEquals(2, repo.findUpdatedSince(Instant.EPOCH, new UUID(0, 0), PageRequest.of(0, 10)).size());
+    }
+
+    UUID insert(Instant createdAt, DocumentStatus status) {
+        UUID id = UUID.randomUUID();
+        em.persist(Document.builder()
+                .id(id)
+                .originalFileName(id + ".pdf")
+                .contentType("application/pdf")
+                .sizeBytes(1L)
+                .extractedText("text")
+                .status(status)
+                .build());
+        em.flush();
+        // createdAt is a @CreationTimestamp; pin it so ordering is deterministic
+        em.createQuery("update Document d set d.createdAt = :c where d.id = :id")
+                .setParameter("c", createdAt).setParameter("id", id).executeUpdate();
+        em.clear();
+        return id;
+    }
+}
@@ -0,0 +1,158 @@
+package com.hng.docxtractor.search;
+
+import com.hng.docxtractor.dto.DocumentSearchResponse;
+import com.hng.docxtractor.entity.Document;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.repo.DocumentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LuceneSearchIndexServiceTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private final DocumentRepository repo = mock(DocumentRepository.class);
+    // what the database holds, including rows written by other replicas
+    private final List<Document> rows = new ArrayList<>();
+    private LuceneSearchIndexService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) service.close();
+    }
+
+    @Test
+    void indexedDocumentsAreSearchableAndReindexingReplacesThem() throws Exception {
+        service = open();
+        Document doc = doc(T0, DocumentStatus.PENDING, "Invoice from Acme Corp");
+        service.index(doc);
+
+        assertEquals(1, service.search("acme", null, null, 0, 20).getTotalHits());
+        assertEquals(DocumentStatus.PENDING, service.search("acme", null, null, 0, 20).getHits().get(0).getStatus());
+
+        doc.setStatus(DocumentStatus.COMPLETED);
+        doc.setDocumentType("invoice");
+        when(repo.findAllById(List.of(doc.getId()))).thenReturn(List.of(doc));
+        service.reindex(List.of(doc.getId()));
+
+        assertEquals(1, service.search("acme", null, null, 0, 20).getTotalHits());
+        assertEquals(0, service.search("acme", null, DocumentStatus.PENDING, 0, 20).getTotalHits());
+        assertEquals(1, service.search("acme", "Invoice", DocumentStatus.COMPLETED, 0, 20).getTotalHits());
+    }
+
+    @Test
+    void listingPagesNewestFirstAndClampsPageAndSize() throws Exception {
+        service = open();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Document doc = doc(T0.plusSeconds(i), DocumentStatus.COMPLETED, "page " + i);
+            service.index(doc);
+            ids.add(0, doc.getId());
+        }
+
+        List<UUID> seen = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            DocumentSearchResponse r = service.search(null, null, null, page, 2);
+            assertEquals(5, r.getTotalHits());
+            r.getHits().forEach(h -> seen.add(h.getId()));
+        }
+        assertEquals(ids, seen);
+
+        DocumentSearchResponse clamped = service.search(null, null, null, 1_000_000, 1_000);
+        assertEquals(100, clamped.getSize());
+        assertEquals(99, clamped.getPage());
+        assertTrue(clamped.getHits().isEmpty());
+    }
+
+    @Test
+    void syncPicksUpOtherReplicasWritesAndResumesFromTheCommittedWatermark() throws Exception {
+        service = open();
+        Document doc = doc(T0, DocumentStatus.PENDING, "Lease agreement");
+        rows.add(doc);
+
+        service.syncFromDatabase();
+        assertEquals(1, service.search("lease", null, DocumentStatus.PENDING, 0, 20).getTotalHits());
+
+        // another replica finished the analysis
+        doc.setStatus(DocumentStatus.COMPLETED);
+        doc.setUpdatedAt(T0.plusSeconds(30));
+        service.syncFromDatabase();
+        assertEquals(0, service.search("lease", null, DocumentStatus.PENDING, 0, 20).getTotalHits());
+        assertEquals(1, service.search("lease", null, DocumentStatus.COMPLETED, 0, 20).getTotalHits());
+
+        service.commit();
+        service.close();
+        clearInvocations(repo);
+        service = open();
+        service.syncFromDatabase();
+
+        verify(repo).findUpdatedSince(eq(T0.plusSeconds(30).minus(Duration.ofMinutes(1))), any(), any());
+        assertEquals(1, service.search("lease", null, null, 0, 20).getTotalHits());
+    }
+
+    @Test
+    void syncCatchesUpALargeBacklogAcrossRuns() throws Exception {
+        service = open();
+        ReflectionTestUtils.setField(service, "syncMaxPages", 1);
+        // more rows than one page, all with the same timestamp, so only the id tiebreaker moves the cursor
+        for (int i = 0; i < 250; i++) rows.add(doc(T0, DocumentStatus.COMPLETED, "row"));
+
+        service.syncFromDatabase();
+        assertEquals(100, service.search(null, null, null, 0, 20).getTotalHits());
+        service.syncFromDatabase();
+        service.syncFromDatabase();
+        assertEquals(250, service.search(null, null, null, 0, 20).getTotalHits());
+    }
+
+    private LuceneSearchIndexService open() throws Exception {
+        when(repo.findUpdatedSince(any(), any(), any())).thenAnswer(inv -> {
+            Instant since = inv.getArgument(0);
+            UUID afterId = inv.getArgument(1);
+            Pageable page = inv.getArgument(2);
+            // uuid columns compare as unsigned bytes, which is the order of their hex form
+            return rows.stream()
+                    .filter(d -> d.getUpdatedAt().isAfter(since) || (d.getUpdatedAt().equals(since)
+                            && d.getId().toString().compareTo(afterId.toString()) > 0))
+                    .sorted(Comparator.comparing(Document::getUpdatedAt).thenComparing(d -> d.getId().toString()))
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+        LuceneSearchIndexService s = new LuceneSearchIndexService(repo);
+        ReflectionTestUtils.setField(s, "indexPath", dir.toString());
+        ReflectionTestUtils.setField(s, "syncOverlap", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(s, "syncMaxPages", 10);
+        s.init();
+        return s;
+    }
+
+    private static Document doc(Instant at, DocumentStatus status, String text) {
+        UUID id = UUID.randomUUID();
+        return Document.builder()
+                .id(id)
+                .originalFileName(id + ".pdf")
+                .contentType("application/pdf")
+                .extractedText(text)
+                .status(status)
+                .createdAt(at)
+                .updatedAt(at)
+                .build();
+    }
+}
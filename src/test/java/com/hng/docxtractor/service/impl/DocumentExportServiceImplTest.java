@@ -0,0 +1,62 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.dto.DocumentExportRow;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.enums.ExportFormat;
+import com.hng.docxtractor.repo.DocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DocumentExportServiceImplTest {
+
+    @Test
+    void csvQuotesSeparatorsQuotesAndLineBreaks() throws Exception {
+        assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\r\nlines\",,\r\n",
+                csv("plain", "a,b", "say \"hi\"", "two\r\nlines", null, ""));
+    }
+
+    @Test
+    void csvNeutralizesFormulaCells() throws Exception {
+        assertEquals("\"'=HYPERLINK(\"\"x\"\")\",'+1,'-2,'@SUM(A1),\"'=1,2\",a=b\r\n",
+                csv("=HYPERLINK(\"x\")", "+1", "-2", "@SUM(A1)", "=1,2", "a=b"));
+    }
+
+    @Test
+    void csvExportWritesHeaderAndOmitsTextUnlessAsked() throws Exception {
+        UUID id = UUID.fromString("6f1c2b9e-3d5a-4c7b-9a1e-2f4d8b7c6a50");
+        DocumentRepository repo = mock(DocumentRepository.class);
+        when(repo.streamForExport(any(), any(), any(), any(), anyBoolean(), anyInt())).thenAnswer(inv -> Stream.of(
+                new DocumentExportRow(id, "=cmd|' /C calc'!A0.pdf", "application/pdf", 10L, DocumentStatus.COMPLETED,
+                        "invoice", "llm", true, Instant.parse("2024-01-15T10:00:00Z"), "Total, due", "{\"names\":[]}", "secret text")));
+        DocumentExportServiceImpl service = new DocumentExportServiceImpl(repo);
+        ReflectionTestUtils.setField(service, "fetchSize", 100);
+        ReflectionTestUtils.setField(service, "flushEvery", 100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.export(null, null, null, null, ExportFormat.CSV, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("id,fileName,contentType,sizeBytes,status,documentType,documentTypeSource,analyzed,createdAt,summary,metadata", lines[0]);
+        assertEquals(id + ",'=cmd|' /C calc'!A0.pdf,application/pdf,10,COMPLETED,invoice,llm,true,2024-01-15T10:00:00Z,"
+                + "\"Total, due\",\"{\"\"names\"\":[]}\"", lines[1]);
+        assertFalse(lines[1].contains("secret text"));
+    }
+
+    private static String csv(String... fields) throws Exception {
+        StringWriter w = new StringWriter();
+        DocumentExportServiceImpl.writeCsvRecord(w, fields.length, fields);
+        return w.toString();
+    }
+}
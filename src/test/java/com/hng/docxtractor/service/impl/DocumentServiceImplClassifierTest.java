@@ -0,0 +1,89 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.cache.DocumentResponseCache;
+import com.hng.docxtractor.entity.Document;
+import com.hng.docxtractor.enums.DocumentStatus;
+import com.hng.docxtractor.repo.DocumentRepository;
+import com.hng.docxtractor.search.SearchIndexService;
+import com.hng.docxtractor.service.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DocumentServiceImplClassifierTest {
+
+    private final LlmService llmService = mock(LlmService.class);
+    private final EntityExtractionService entityExtractionService = mock(EntityExtractionService.class);
+    private final AnalysisLeaseService analysisLeaseService = mock(AnalysisLeaseService.class);
+    private final DocumentClassifier classifier = mock(DocumentClassifier.class);
+    private DocumentServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DocumentServiceImpl(mock(StorageService.class), mock(ExtractionScheduler.class), llmService,
+                entityExtractionService, mock(SearchIndexService.class), analysisLeaseService,
+                mock(DocumentRepository.class), mock(DocumentResponseCache.class), mock(WebhookService.class), classifier);
+        ReflectionTestUtils.setField(service, "analysisMode", "llm");
+        ReflectionTestUtils.setField(service, "classifierMinConfidence", 0.85);
+        when(entityExtractionService.extract(any())).thenReturn(
+                new EntityExtractionService.ExtractedEntities(List.of(), List.of(), List.of(), List.of()));
+        when(llmService.analyze(any(), any(), any(), anyBoolean(), anyInt()))
+                .thenReturn(new LlmService.LlmResult("letter", "A letter.", "{\"names\":[]}"));
+        when(analysisLeaseService.complete(any())).thenReturn(true);
+    }
+
+    @Test
+    void confidentPredictionSkipsTheLlm() {
+        when(classifier.classify(any(), any())).thenReturn(Optional.of(new DocumentClassifier.Prediction("invoice", 0.85)));
+        Document doc = doc();
+
+        service.runAnalysisAsync(doc, false);
+
+        verifyNoInteractions(llmService);
+        assertEquals("invoice", doc.getDocumentType());
+        assertEquals(DocumentClassifier.SOURCE_CLASSIFIER, doc.getDocumentTypeSource());
+        assertNull(doc.getSummary());
+        assertEquals(DocumentStatus.COMPLETED, doc.getStatus());
+    }
+
+    @Test
+    void predictionBelowThresholdGoesToTheLlm() {
+        when(classifier.classify(any(), any())).thenReturn(Optional.of(new DocumentClassifier.Prediction("invoice", 0.84)));
+        Document doc = doc();
+
+        service.runAnalysisAsync(doc, false);
+
+        verify(llmService).analyze(any(), any(), any(), anyBoolean(), anyInt());
+        assertEquals("letter", doc.getDocumentType());
+        assertEquals(DocumentClassifier.SOURCE_LLM, doc.getDocumentTypeSource());
+    }
+
+    @Test
+    void summaryRequestAlwaysGoesToTheLlm() {
+        when(classifier.classify(any(), any())).thenReturn(Optional.of(new DocumentClassifier.Prediction("invoice", 0.99)));
+        Document doc = doc();
+
+        service.runAnalysisAsync(doc, true);
+
+        verifyNoInteractions(classifier);
+        assertEquals("A letter.", doc.getSummary());
+    }
+
+    private Document doc() {
+        return Document.builder()
+                .id(UUID.randomUUID())
+                .originalFileName("scan.pdf")
+                .contentType("application/pdf")
+                .extractedText("Invoice no. 123, total due 40.00")
+                .status(DocumentStatus.PROCESSING)
+                .build();
+    }
+}
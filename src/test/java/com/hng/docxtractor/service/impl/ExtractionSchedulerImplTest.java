@@ -0,0 +1,173 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.exception.ServiceBusyException;
+import com.hng.docxtractor.service.TextExtractionService;
+import com.hng.docxtractor.service.TextExtractionService.TextExtractionResult;
+import com.hng.docxtractor.util.PathMultipartFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ExtractionSchedulerImplTest {
+
+    @TempDir
+    Path scratch;
+
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch blockerStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseBlocker = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Thread> callers = new ArrayList<>();
+
+    private TextExtractionService extraction;
+    private ExtractionCostEstimator estimator;
+    private ExtractionSchedulerImpl scheduler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        extraction = mock(TextExtractionService.class);
+        when(extraction.extractText(any(), any())).thenAnswer(inv -> {
+            String name = inv.<MultipartFile>getArgument(0).getOriginalFilename();
+            if (name.equals("blocker")) {
+                blockerStarted.countDown();
+                releaseBlocker.await();
+            }
+            order.add(name);
+            return new TextExtractionResult(name, false, 0);
+        });
+
+        estimator = mock(ExtractionCostEstimator.class);
+        when(estimator.estimate(any())).thenReturn(new ExtractionCostEstimator.Estimate(1, false, 0, true));
+
+        ExtractionAdmissionController admission = mock(ExtractionAdmissionController.class);
+        when(admission.admit(anyLong())).thenReturn(mock(ExtractionAdmissionController.Admission.class));
+
+        scheduler = new ExtractionSchedulerImpl(extraction, estimator, admission, registry);
+        ReflectionTestUtils.setField(scheduler, "configuredConcurrency", 1);
+        ReflectionTestUtils.setField(scheduler, "fastLaneMaxCost", 30L);
+        ReflectionTestUtils.setField(scheduler, "fastLaneWeight", 3);
+        ReflectionTestUtils.setField(scheduler, "sliceCost", 120L);
+        ReflectionTestUtils.setField(scheduler, "maxQueued", 5);
+        ReflectionTestUtils.setField(scheduler, "scratchDir", scratch.toString());
+        scheduler.init();
+
+        // occupy the only runner so everything after this queues up
+        submit("blocker", "a");
+        assertTrue(blockerStarted.await(5, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        releaseBlocker.countDown();
+        for (Thread t : callers) t.join(5000);
+        scheduler.shutdown();
+    }
+
+    @Test
+    void clientsTakeTurnsWithinALane() throws Exception {
+        enqueue("a1", "a");
+        enqueue("a2", "a");
+        enqueue("a3", "a");
+        enqueue("b1", "b");
+
+        releaseBlocker.countDown();
+        for (Thread t : callers) t.join(5000);
+
+        assertEquals(List.of("blocker", "a1", "b1", "a2", "a3"), order);
+    }
+
+    @Test
+    void rejectsWorkThatWouldOverflowTheQueue() throws Exception {
+        bigPdfIsSliced();
+        when(extraction.splitPdf(any(), anyInt(), any())).thenAnswer(inv -> {
+            // another client's job arrives while the document is being split
+            enqueue("a1", "a");
+            List<Path> slices = new ArrayList<>();
+            for (int i = 0; i < 10; i++) slices.add(Files.write(inv.<Path>getArgument(2).resolve(i + ".pdf"), new byte[]{1}));
+            return new TextExtractionService.PdfSplit(new TextExtractionResult("", true, 10), slices);
+        });
+        releaseBlocker.countDown();
+        Path pdf = Files.write(scratch.resolve("big.pdf"), new byte[]{1});
+        MultipartFile big = new PathMultipartFile(pdf, "big.pdf", "application/pdf");
+
+        // 10 single-page OCR slices on top of one queued job exceed max-queued (5) even though the queue isn't full yet
+        assertThrows(ServiceBusyException.class, () -> scheduler.extract(big, null, "b"));
+        assertEquals(0, depth("bulk"));
+        verify(extraction, never()).ocrPdf(any(), any());
+        try (var left = Files.list(scratch)) {
+            assertEquals(List.of(pdf), left.toList()); // slice files are cleaned up
+        }
+    }
+
+    @Test
+    void largePdfIsParsedOnceAndOnlyOcrSlicesRunPerSlice() throws Exception {
+        bigPdfIsSliced();
+        when(extraction.splitPdf(any(), anyInt(), any())).thenAnswer(inv -> new TextExtractionService.PdfSplit(
+                new TextExtractionResult("cover", true, 3), List.of(
+                        Files.write(inv.<Path>getArgument(2).resolve("0.pdf"), new byte[]{1}),
+                        Files.write(inv.<Path>getArgument(2).resolve("1.pdf"), new byte[]{1}))));
+        when(extraction.ocrPdf(any(), any())).thenAnswer(inv ->
+                new TextExtractionResult("ocr " + inv.<MultipartFile>getArgument(0).getOriginalFilename(), false, 0));
+        releaseBlocker.countDown();
+        Path pdf = Files.write(scratch.resolve("big.pdf"), new byte[]{1});
+
+        TextExtractionResult res = scheduler.extract(new PathMultipartFile(pdf, "big.pdf", "application/pdf"), null, "b");
+
+        verify(extraction).splitPdf(any(), eq(1), any());
+        verify(extraction, times(2)).ocrPdf(any(), any());
+        verify(extraction, never()).extractText(any(), any());
+        assertEquals("cover\nocr big.pdf\nocr big.pdf", res.text);
+        assertEquals(3, res.imageCount);
+    }
+
+    // 10 scanned pages, one page per slice; everything else stays a cheap fast-lane job
+    private void bigPdfIsSliced() {
+        when(estimator.estimate(any())).thenAnswer(inv -> "big.pdf".equals(inv.<MultipartFile>getArgument(0).getOriginalFilename())
+                ? new ExtractionCostEstimator.Estimate(1500, true, 10, false)
+                : new ExtractionCostEstimator.Estimate(1, false, 0, true));
+    }
+
+    private void enqueue(String name, String client) throws InterruptedException {
+        double before = depth("fast");
+        submit(name, client);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (depth("fast") <= before) {
+            assertTrue(System.nanoTime() < deadline, "job " + name + " was not queued");
+            Thread.sleep(5);
+        }
+    }
+
+    private void submit(String name, String client) {
+        Thread t = new Thread(() -> {
+            try {
+                scheduler.extract(new MockMultipartFile("file", name, "text/plain", new byte[]{1}), null, client);
+            } catch (Exception ignored) {
+            }
+        });
+        t.start();
+        callers.add(t);
+    }
+
+    private double depth(String lane) {
+        return registry.get("extraction.queue.depth").tag("lane", lane).gauge().value();
+    }
+}
@@ -0,0 +1,75 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.repo.DocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HashedNgramDocumentClassifierTest {
+
+    private final DocumentRepository repo = mock(DocumentRepository.class);
+    private final Map<UUID, DocumentRepository.TrainingRow> rows = new LinkedHashMap<>();
+    private final Random rnd = new Random(7);
+
+    @Test
+    void typesOutsideTheLabelSetAreLeftToTheLlm() {
+        add("invoice", 0, 30);
+        add("letter", 1, 30);
+        add("recipe", 2, 30); // not a configured label
+        HashedNgramDocumentClassifier classifier = trained("invoice,letter");
+
+        assertEquals("invoice", classifier.classify(null, HashedNgramModelTest.text(0, rnd)).orElseThrow().documentType());
+        assertEquals("letter", classifier.classify(null, HashedNgramModelTest.text(1, rnd)).orElseThrow().documentType());
+        assertTrue(classifier.classify(null, HashedNgramModelTest.text(2, rnd)).isEmpty());
+    }
+
+    @Test
+    void closedSetModelIsNotPublishedUntilEveryLabelIsCovered() {
+        add("invoice", 0, 30);
+        add("letter", 1, 30);
+
+        assertTrue(trained("invoice,letter,contract").classify(null, HashedNgramModelTest.text(0, rnd)).isEmpty());
+        assertTrue(trained("invoice,letter").classify(null, HashedNgramModelTest.text(0, rnd)).isPresent());
+    }
+
+    private HashedNgramDocumentClassifier trained(String labels) {
+        when(repo.findTrainingIds(any(), any(), any())).thenReturn(new ArrayList<>(rows.keySet()));
+        when(repo.findTrainingRows(any())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            return ids.stream().map(rows::get).toList();
+        });
+        HashedNgramDocumentClassifier classifier = new HashedNgramDocumentClassifier(repo);
+        ReflectionTestUtils.setField(classifier, "enabled", true);
+        ReflectionTestUtils.setField(classifier, "labels", List.of(labels.split(",")));
+        ReflectionTestUtils.setField(classifier, "hashBits", 18);
+        ReflectionTestUtils.setField(classifier, "minTrainingDocs", 50);
+        ReflectionTestUtils.setField(classifier, "maxTrainingDocs", 20000);
+        ReflectionTestUtils.setField(classifier, "minHoldoutAccuracy", 0.9);
+        classifier.retrain();
+        return classifier;
+    }
+
+    private void add(String type, int vocab, int count) {
+        for (int i = 0; i < count; i++) {
+            String text = HashedNgramModelTest.text(vocab, rnd);
+            rows.put(UUID.randomUUID(), new DocumentRepository.TrainingRow() {
+                public String getDocumentType() {
+                    return type;
+                }
+
+                public String getOriginalFileName() {
+                    return "scan.pdf";
+                }
+
+                public String getExtractedText() {
+                    return text;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.hng.docxtractor.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedNgramModelTest {
+
+    private static final int BITS = 18;
+    private static final String[] LABELS = {"invoice", "letter", "recipe"};
+    private static final List<List<String>> VOCAB = List.of(
+            List.of("invoice", "total", "due", "vat", "amount", "payment", "net", "bill"),
+            List.of("dear", "sincerely", "regards", "writing", "hope", "letter", "yours", "kind"),
+            List.of("flour", "sugar", "bake", "oven", "stir", "minutes", "eggs", "butter"));
+    private static final List<String> COMMON = List.of("the", "and", "of", "to", "for", "with", "on", "page");
+
+    @Test
+    void featuresAreUnitLengthAndFoldDigits() {
+        HashedNgramModel.Sparse x = HashedNgramModel.features("inv-2023.pdf", "Invoice 2023-04 total 17", BITS);
+
+        double norm = 0;
+        for (float v : x.value()) norm += v * v;
+        assertEquals(1.0, norm, 1e-5);
+        assertEquals(sameAs(x), sameAs(HashedNgramModel.features("inv-1999.pdf", "Invoice 1999-11 total 85", BITS)), "digits fold to 0");
+        assertEquals(sameAs(x), sameAs(HashedNgramModel.features("INV-2023.PDF", "INVOICE 2023-04 TOTAL 17", BITS)), "case folds");
+    }
+
+    @Test
+    void fileNameTokensAreKeptApartFromTextTokens() {
+        HashedNgramModel.Sparse name = HashedNgramModel.features("invoice", null, BITS);
+        HashedNgramModel.Sparse text = HashedNgramModel.features(null, "invoice", BITS);
+
+        assertEquals(1, name.index().length);
+        assertEquals(1, text.index().length);
+        assertNotEquals(name.index()[0], text.index()[0]);
+    }
+
+    @Test
+    void bigramsAreFeaturesAndOverlongTokensAreDropped() {
+        assertEquals(3, HashedNgramModel.features(null, "total due", BITS).index().length);
+        assertEquals(0, HashedNgramModel.features(null, "x".repeat(31), BITS).index().length);
+        assertEquals(0, HashedNgramModel.features(null, null, BITS).index().length);
+        // text past the head is ignored
+        String head = "a ".repeat(HashedNgramModel.MAX_TEXT_CHARS / 2);
+        assertEquals(sameAs(HashedNgramModel.features(null, head, BITS)),
+                sameAs(HashedNgramModel.features(null, head + "invoice total", BITS)));
+    }
+
+    @Test
+    void trainingSeparatesASyntheticSet() {
+        Random rnd = new Random(7);
+        List<HashedNgramModel.Sparse> train = new ArrayList<>(), test = new ArrayList<>();
+        int[] trainY = new int[90], testY = new int[30];
+        for (int i = 0; i < 120; i++) {
+            int label = i % LABELS.length;
+            HashedNgramModel.Sparse x = HashedNgramModel.features(null, text(label, rnd), BITS);
+            if (i < 90) {
+                train.add(x);
+                trainY[i] = label;
+            } else {
+                test.add(x);
+                testY[i - 90] = label;
+            }
+        }
+
+        HashedNgramModel model = HashedNgramModel.train(train, trainY, LABELS, BITS, 8, 42);
+
+        assertEquals(1.0, model.accuracy(test, testY));
+        double[] p = model.probabilities(test.get(0));
+        assertEquals(1.0, Arrays.stream(p).sum(), 1e-9);
+        assertTrue(p[testY[0]] > 0.5, Arrays.toString(p));
+        // same data and seed, same model
+        HashedNgramModel again = HashedNgramModel.train(train, trainY, LABELS, BITS, 8, 42);
+        assertArrayEquals(p, again.probabilities(test.get(0)));
+    }
+
+    @Test
+    void untrainedModelIsUniform() {
+        HashedNgramModel model = HashedNgramModel.train(List.of(), new int[0], LABELS, BITS, 1, 42);
+
+        double[] p = model.probabilities(HashedNgramModel.features(null, "invoice total", BITS));
+        for (double v : p) assertEquals(1.0 / LABELS.length, v, 1e-9);
+        assertEquals(0, model.accuracy(List.of(), new int[0]));
+    }
+
+    static String text(int label, Random rnd) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            List<String> words = i % 4 == 3 ? COMMON : VOCAB.get(label);
+            sb.append(words.get(rnd.nextInt(words.size()))).append(' ');
+        }
+        return sb.toString();
+    }
+
+    // Sparse holds arrays, so compare by content
+    private static List<String> sameAs(HashedNgramModel.Sparse x) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < x.index().length; i++) out.add(x.index()[i] + "=" + x.value()[i]);
+        out.sort(null);
+        return out;
+    }
+}
@@ -0,0 +1,34 @@
+package com.hng.docxtractor.service.impl;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput benchmark for the local entity extractor. Run with: mvn test -Pbenchmark
+ * Correctness cases live in {@link RegexEntityExtractionServiceTest}.
+ */
+@Tag("benchmark")
+class RegexEntityExtractionBenchmarkTest {
+
+    // a single pass over extracted text should never be the bottleneck next to PDF parsing / OCR
+    private static final double MIN_MB_PER_SECOND = 5.0;
+
+    private final RegexEntityExtractionService extractor = new RegexEntityExtractionService();
+
+    @Test
+    void throughput() {
+        String corpus = RegexEntityExtractionServiceTest.PAGE.repeat(2_000); // ~1.7 MB, roughly a 2000-page document
+        for (int i = 0; i < 5; i++) extractor.extract(corpus); // warm-up
+
+        int runs = 20;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) extractor.extract(corpus);
+        long elapsed = System.nanoTime() - start;
+
+        double mbPerSecond = corpus.length() * (double) runs / (1024 * 1024) / (elapsed / 1e9);
+        assertTrue(mbPerSecond >= MIN_MB_PER_SECOND,
+                String.format("entity extraction ran at %.1f MB/s, expected at least %.1f", mbPerSecond, MIN_MB_PER_SECOND));
+    }
+}
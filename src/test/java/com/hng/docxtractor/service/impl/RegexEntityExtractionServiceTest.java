@@ -0,0 +1,43 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.service.EntityExtractionService.ExtractedEntities;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegexEntityExtractionServiceTest {
+
+    static final String PAGE = """
+            ACME Corp - Invoice INV-20230115                                  Page 1 of 3
+            Bill to: XYZ Ltd, 12 Market Street
+            Invoice date: 2023-01-15      Due: Feb 1, 2023
+            Contact billing@abccorp.com or call +1-555-123-4567 / (555) 123-4567
+            Item                         Qty        Unit          Total
+            Consulting services            10       $150.00       $1,500.00
+            Support retainer                1       1200 USD      1,200.00 USD
+            Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor
+            incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud
+            exercitation ullamco laboris nisi ut aliquip ex ea commodo consequat 2021 2022 2023.
+            """;
+
+    private final RegexEntityExtractionService extractor = new RegexEntityExtractionService();
+
+    @Test
+    void extractsDeterministicEntitiesInOnePass() {
+        ExtractedEntities e = extractor.extract(PAGE);
+
+        assertEquals(List.of("billing@abccorp.com"), e.emails);
+        assertTrue(e.phones.contains("+1-555-123-4567"));
+        assertTrue(e.dates.containsAll(List.of("2023-01-15", "Feb 1, 2023")));
+        assertTrue(e.amounts.containsAll(List.of("$1,500.00", "1200 USD")));
+    }
+
+    @Test
+    void doesNotTreatRunsOfYearsAsPhoneNumbers() {
+        ExtractedEntities e = extractor.extract(PAGE);
+
+        assertFalse(e.phones.stream().anyMatch(p -> p.startsWith("2021")));
+    }
+}
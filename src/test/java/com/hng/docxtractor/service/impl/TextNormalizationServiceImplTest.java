@@ -0,0 +1,73 @@
+package com.hng.docxtractor.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextNormalizationServiceImplTest {
+
+    private TextNormalizationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TextNormalizationServiceImpl();
+        ReflectionTestUtils.setField(service, "maxPromptTokens", 10);
+        ReflectionTestUtils.setField(service, "charsPerToken", 4);
+    }
+
+    @Test
+    void collapsesWhitespaceAndRejoinsHyphenatedWords() {
+        String out = service.normalize("Total   amount\t due:\r\ninter-\nnational  transfer\u0007");
+        assertThat(out).isEqualTo("Total amount due:\ninternational transfer");
+    }
+
+    @Test
+    void dropsRepeatedPageHeadersButKeepsAdjacentRepeats() {
+        StringBuilder sb = new StringBuilder();
+        for (int page = 1; page <= 3; page++) {
+            sb.append("ACME Corp - Page ").append(page).append(" of 3\n");
+            for (int i = 0; i < 12; i++) sb.append("body line ").append(page).append('-').append(i).append('\n');
+        }
+        sb.append("Qty 1\nQty 1\nQty 1\n");
+
+        String out = service.normalize(sb.toString());
+
+        assertThat(out).doesNotContain("ACME Corp");
+        assertThat(out).contains("body line 2-5");
+        assertThat(out.split("Qty 1", -1)).hasSize(4);
+    }
+
+    @Test
+    void dropsOcrNoiseLines() {
+        assertThat(service.normalize("Invoice 42\n~~|;;|~~\nPaid")).isEqualTo("Invoice 42\nPaid");
+    }
+
+    @Test
+    void truncatesToTokenBudgetKeepingHeadAndTail() {
+        String text = "a".repeat(30) + "\n" + "b".repeat(30) + "\n" + "c".repeat(30);
+
+        String out = service.prepareForPrompt(text);
+
+        assertThat(out).startsWith("aaaa").endsWith("cccc").contains("characters omitted");
+        assertThat(service.prepareForPrompt("short")).isEqualTo("short");
+    }
+
+    @Test
+    void keepsRepeatedLabelledAmountsAndDropsBarePageNumbers() {
+        StringBuilder sb = new StringBuilder();
+        for (int page = 1; page <= 3; page++) {
+            for (int i = 0; i < 12; i++) sb.append("item ").append(page).append('-').append(i).append('\n');
+            sb.append("Total: $").append(100 + page).append('\n');
+            sb.append("Qty: 4\n");
+            sb.append("- ").append(page).append(" -\n");
+        }
+
+        String out = service.normalize(sb.toString());
+
+        assertThat(out).contains("Total: $101", "Total: $102", "Total: $103");
+        assertThat(out.split("Qty: 4", -1)).hasSize(4);
+        assertThat(out).doesNotContain("- 2 -");
+    }
+}
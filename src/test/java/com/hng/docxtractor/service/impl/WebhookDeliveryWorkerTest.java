@@ -0,0 +1,96 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.entity.WebhookOutboxEntry;
+import com.hng.docxtractor.enums.WebhookDeliveryStatus;
+import com.hng.docxtractor.repo.WebhookOutboxRepository;
+import com.hng.docxtractor.repo.WebhookSubscriptionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WebhookDeliveryWorkerTest {
+
+    private static final Pattern SIGNATURE = Pattern.compile("t=(\\d+),v1=([0-9a-f]{64})");
+
+    private final WebhookOutboxRepository outboxRepo = mock(WebhookOutboxRepository.class);
+    private final WebhookSubscriptionRepository subscriptionRepo = mock(WebhookSubscriptionRepository.class);
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final WebhookDeliveryWorker worker = new WebhookDeliveryWorker(outboxRepo, subscriptionRepo);
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void signIsHexHmacSha256() {
+        // RFC 4231, test case 2
+        assertEquals("5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843",
+                WebhookDeliveryWorker.sign("Jefe", "what do ya want for nothing?"));
+    }
+
+    @Test
+    void subscriptionSecretsAreStableAndDistinct() {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID();
+
+        assertEquals(WebhookDeliveryWorker.subscriptionSecret("s3cret", a), WebhookDeliveryWorker.subscriptionSecret("s3cret", a));
+        assertNotEquals(WebhookDeliveryWorker.subscriptionSecret("s3cret", a), WebhookDeliveryWorker.subscriptionSecret("s3cret", b));
+        assertNotEquals(WebhookDeliveryWorker.subscriptionSecret("s3cret", a), WebhookDeliveryWorker.subscriptionSecret("other", a));
+        assertNotEquals(WebhookDeliveryWorker.subscriptionSecret("s3cret", a), WebhookDeliveryWorker.callbackSecret("s3cret", a));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deliverySignsTimestampDotBody() {
+        ReflectionTestUtils.setField(worker, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(worker, "signingSecret", "s3cret");
+        ReflectionTestUtils.setField(worker, "claimBatchSize", 10);
+        ReflectionTestUtils.setField(worker, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(worker, "leaseDuration", Duration.ofMinutes(1));
+        UUID id = UUID.randomUUID(), documentId = UUID.randomUUID();
+        when(outboxRepo.findDue(eq(WebhookDeliveryStatus.PENDING), any(), any())).thenReturn(List.of(id));
+        when(outboxRepo.claim(any(), anyString(), any(), any(), any())).thenReturn(1);
+        when(outboxRepo.findByLeaseOwner(anyString())).thenReturn(List.of(WebhookOutboxEntry.builder()
+                .id(id)
+                .documentId(documentId)
+                .url("https://hooks.example.com/docs")
+                .event("document.completed")
+                .payload("{\"event\":\"document.completed\"}")
+                .status(WebhookDeliveryStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(Instant.now())
+                .build()));
+
+        long before = Instant.now().getEpochSecond();
+        worker.deliverDue();
+
+        ArgumentCaptor<HttpEntity<String>> request = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).exchange(eq("https://hooks.example.com/docs"), eq(HttpMethod.POST), request.capture(), eq(Void.class));
+        String body = request.getValue().getBody();
+        assertTrue(body.endsWith("\"events\":[{\"event\":\"document.completed\"}]}"), body);
+
+        Matcher m = SIGNATURE.matcher(request.getValue().getHeaders().getFirst(WebhookDeliveryWorker.SIGNATURE_HEADER));
+        assertTrue(m.matches());
+        long t = Long.parseLong(m.group(1));
+        assertTrue(t >= before && t <= Instant.now().getEpochSecond());
+        // a per-upload callback is signed with the document's key, never with the shared secret
+        String key = WebhookDeliveryWorker.callbackSecret("s3cret", documentId);
+        assertEquals(WebhookDeliveryWorker.sign(key, t + "." + body), m.group(2));
+        assertNotNull(request.getValue().getHeaders().getFirst(WebhookDeliveryWorker.DELIVERY_HEADER));
+    }
+}
@@ -0,0 +1,53 @@
+package com.hng.docxtractor.service.impl;
+
+import com.hng.docxtractor.service.TextExtractionService.TextExtractionResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordTextExtractorTest {
+
+    private static final String NS = "xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\"";
+
+    @TempDir
+    File scratch;
+
+    @Test
+    void readsHeadersFootersAndNotesAroundTheBody() throws Exception {
+        byte[] docx = zip(Map.of(
+                "word/document.xml", "<w:document " + NS + "><w:body>"
+                        + "<w:p><w:pPr><w:tabs><w:tab w:val=\"left\" w:pos=\"720\"/></w:tabs></w:pPr>"
+                        + "<w:r><w:t>Name</w:t><w:tab/><w:t>Value</w:t></w:r></w:p>"
+                        + "</w:body></w:document>",
+                "word/header1.xml", "<w:hdr " + NS + "><w:p><w:r><w:t>ACME header</w:t></w:r></w:p></w:hdr>",
+                "word/footer1.xml", "<w:ftr " + NS + "><w:p><w:r><w:t>Page footer</w:t></w:r></w:p></w:ftr>",
+                "word/footnotes.xml", "<w:footnotes " + NS + "><w:footnote><w:p><w:r><w:t>A footnote</w:t></w:r></w:p></w:footnote></w:footnotes>",
+                "word/media/image1.png", "png"));
+
+        TextExtractionResult res = WordTextExtractor.extractDocx(new ByteArrayInputStream(docx), scratch);
+
+        assertEquals("ACME header\nName\tValue\nA footnote\nPage footer\n", res.text);
+        assertEquals(1, res.imageCount);
+    }
+
+    private static byte[] zip(Map<String, String> parts) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bos)) {
+            for (Map.Entry<String, String> e : parts.entrySet()) {
+                zos.putNextEntry(new ZipEntry(e.getKey()));
+                zos.write(e.getValue().getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+        return bos.toByteArray();
+    }
+}
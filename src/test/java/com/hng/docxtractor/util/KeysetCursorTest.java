@@ -0,0 +1,35 @@
+package com.hng.docxtractor.util;
+
+import com.hng.docxtractor.exception.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsThroughOpaqueString() {
+        KeysetCursor c = new KeysetCursor(Instant.parse("2024-01-15T10:00:00.123456Z"), UUID.randomUUID());
+
+        String encoded = c.encode();
+        KeysetCursor decoded = KeysetCursor.decode(encoded);
+
+        assertFalse(encoded.contains("|"));
+        assertEquals(c.createdAt, decoded.createdAt);
+        assertEquals(c.id, decoded.id);
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(" "));
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        assertThrows(ApiException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+}
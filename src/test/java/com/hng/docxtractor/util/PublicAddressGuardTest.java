@@ -0,0 +1,33 @@
+package com.hng.docxtractor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicAddressGuardTest {
+
+    @Test
+    void internalAddressesAreRejected() throws Exception {
+        for (String ip : new String[]{"127.0.0.1", "10.1.2.3", "172.16.0.1", "192.168.1.1", "169.254.169.254",
+                "0.0.0.0", "100.64.0.1", "224.0.0.1", "255.255.255.255", "::1", "::", "fe80::1", "fd00::1",
+                "::ffff:127.0.0.1", "::7f00:1", "64:ff9b::a9fe:a9fe"}) {
+            assertFalse(PublicAddressGuard.isPublic(InetAddress.getByName(ip)), ip);
+        }
+    }
+
+    @Test
+    void publicAddressesAreAllowed() throws Exception {
+        for (String ip : new String[]{"93.184.216.34", "8.8.8.8", "2606:4700:4700::1111", "64:ff9b::808:808"}) {
+            assertTrue(PublicAddressGuard.isPublic(InetAddress.getByName(ip)), ip);
+        }
+    }
+
+    @Test
+    void resolvingALiteralInternalHostFails() {
+        assertThrows(UnknownHostException.class, () -> PublicAddressGuard.resolvePublic("169.254.169.254"));
+        assertThrows(UnknownHostException.class, () -> PublicAddressGuard.resolvePublic("localhost"));
+    }
+}
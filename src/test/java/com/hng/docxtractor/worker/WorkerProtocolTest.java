@@ -0,0 +1,58 @@
+package com.hng.docxtractor.worker;
+
+import com.hng.docxtractor.service.TextExtractionService.TextExtractionResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerProtocolTest {
+
+    @Test
+    void tokenRoundTrips() throws IOException {
+        String token = UUID.randomUUID().toString();
+
+        assertEquals(token, WorkerProtocol.readToken(in(out -> WorkerProtocol.writeString(out, token))));
+    }
+
+    @Test
+    void oversizedTokenIsRejectedBeforeAllocating() {
+        // a peer claiming a 2 GB token must not make the acceptor allocate it
+        assertThrows(IOException.class, () -> WorkerProtocol.readToken(in(out -> out.writeInt(Integer.MAX_VALUE))));
+        assertThrows(IOException.class, () -> WorkerProtocol.readToken(
+                in(out -> WorkerProtocol.writeString(out, "x".repeat(WorkerProtocol.MAX_TOKEN_BYTES + 1)))));
+    }
+
+    @Test
+    void requestRoundTrips() throws IOException {
+        WorkerProtocol.Request req = new WorkerProtocol.Request(WorkerProtocol.SPLIT, "/tmp/a.pdf", "a.pdf", null, null,
+                4, "/tmp/slices-1");
+
+        assertEquals(req, WorkerProtocol.readRequest(in(out -> WorkerProtocol.writeRequest(out, req))));
+    }
+
+    @Test
+    void splitResultCarriesItsSlicesInOrder() throws IOException {
+        WorkerProtocol.Response res = WorkerProtocol.readResult(in(out -> WorkerProtocol.writeResult(out,
+                new TextExtractionResult("cover", true, 3), List.of("/tmp/s/slice-00000.pdf", "/tmp/s/slice-00001.pdf"))));
+
+        assertEquals("cover", res.result().text);
+        assertEquals(3, res.result().imageCount);
+        assertEquals(List.of("/tmp/s/slice-00000.pdf", "/tmp/s/slice-00001.pdf"), res.slices());
+    }
+
+    private interface Output {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static DataInputStream in(Output writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writer.write(out);
+        out.flush();
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}